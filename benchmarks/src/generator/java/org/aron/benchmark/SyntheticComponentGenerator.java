@@ -0,0 +1,96 @@
+package org.aron.benchmark;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * 生成基准测试使用的合成组件源码 只依赖JDK, 构建时以单文件源码方式运行:
+ * java SyntheticComponentGenerator.java 输出目录 100,1000,10000
+ * 每个规模N生成一个包 org.aron.benchmark.synthetic.sN:
+ * 1. App: 作为AnnotationApplicationContext的appClass 只扫描所在的包
+ * 2. Component0 ~ ComponentN-1: 每10个中1个@Controller、1个@Service, 其余为@Component;
+ *    ComponentI 依赖 Component(I/2) 与 Component(I/3), 依赖层数约为log(N)
+ * 3. Config: @Configuration 含N/10个@Bean方法, 返回Beans中的静态内部类
+ * 4. Extra: 非组件类 依赖Component0与Component1, 用于测试运行时setBean
+ **/
+public class SyntheticComponentGenerator {
+
+    static final String BASE_PACKAGE = "org.aron.benchmark.synthetic";
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("usage: SyntheticComponentGenerator <output directory> <size,size,...>");
+            System.exit(1);
+        }
+        Path output = Paths.get(args[0]);
+        for (String size : args[1].split(",")) {
+            generate(output, Integer.parseInt(size.trim()));
+        }
+    }
+
+    static void generate(Path output, int size) throws IOException {
+        String packageName = BASE_PACKAGE + ".s" + size;
+        Path directory = output.resolve(packageName.replace('.', '/'));
+        Files.createDirectories(directory);
+        String header = "package " + packageName + ";\n\n";
+
+        write(directory, "App", header + "public class App {\n}\n");
+        for (int i = 0; i < size; i++) {
+            write(directory, "Component" + i, header + component(i));
+        }
+        StringBuilder config = new StringBuilder(header)
+                .append("@org.aron.context.annotation.Configuration\n")
+                .append("public class Config {\n");
+        StringBuilder beans = new StringBuilder(header).append("public class Beans {\n");
+        for (int i = 0; i < Math.max(1, size / 10); i++) {
+            beans.append("    public static class Bean").append(i).append(" {\n    }\n");
+            config.append("    @org.aron.context.annotation.component.Bean\n")
+                    .append("    public Beans.Bean").append(i).append(" bean").append(i).append("() {\n")
+                    .append("        return new Beans.Bean").append(i).append("();\n")
+                    .append("    }\n");
+        }
+        write(directory, "Config", config.append("}\n").toString());
+        write(directory, "Beans", beans.append("}\n").toString());
+        write(directory, "Extra", header
+                + "public class Extra {\n"
+                + field(0)
+                + (size > 1 ? field(1) : "")
+                + "}\n");
+    }
+
+    private static String component(int i) {
+        String annotation;
+        switch (i % 10) {
+            case 0:
+                annotation = "Controller";
+                break;
+            case 1:
+                annotation = "Service";
+                break;
+            default:
+                annotation = "Component";
+        }
+        StringBuilder source = new StringBuilder()
+                .append("@org.aron.context.annotation.component.").append(annotation).append("\n")
+                .append("public class Component").append(i).append(" {\n");
+        if (i > 0) {
+            source.append(field(i / 2));
+            if (i / 3 != i / 2) {
+                source.append(field(i / 3));
+            }
+        }
+        return source.append("}\n").toString();
+    }
+
+    private static String field(int dependency) {
+        return "    @org.aron.context.annotation.component.Autowired\n"
+                + "    private Component" + dependency + " component" + dependency + ";\n";
+    }
+
+    private static void write(Path directory, String className, String source) throws IOException {
+        Files.write(directory.resolve(className + ".java"), source.getBytes(StandardCharsets.UTF_8));
+    }
+}
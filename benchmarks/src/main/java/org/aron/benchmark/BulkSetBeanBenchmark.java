@@ -0,0 +1,76 @@
+package org.aron.benchmark;
+
+import org.aron.context.core.IocManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 一次运行时注册beans个合成组件的总耗时
+ * 按Component(N-1) ~ Component0的顺序注册: 每个组件注册时依赖的组件都未注册, 由之后注册的组件填充等待的字段
+ * 增量注入时 总耗时 / beans 在不同规模下应基本一致; 每次注册都重新注入所有bean时随规模平方增长
+ **/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class BulkSetBeanBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    private int beans;
+
+    private IocManager iocManager;
+
+    private Class<?>[] classes;
+
+    private Object[] instances;
+
+    @Setup
+    public void setup() throws Exception {
+        this.iocManager = IocManager.getInstance(Collections.emptySet());
+        this.classes = new Class<?>[this.beans];
+        for (int i = 0; i < this.beans; i++) {
+            this.classes[i] = Synthetic.load(this.beans, "Component" + i);
+        }
+    }
+
+    /**
+     * 实例化不计入注册的耗时
+     */
+    @Setup(Level.Invocation)
+    public void newInstances() throws Exception {
+        this.instances = new Object[this.beans];
+        for (int i = 0; i < this.beans; i++) {
+            this.instances[i] = this.classes[i].getDeclaredConstructor().newInstance();
+        }
+    }
+
+    @TearDown(Level.Invocation)
+    public void clear() {
+        this.iocManager.removeBeans(Arrays.asList(this.instances));
+    }
+
+    @Benchmark
+    public Object[] setBeans() throws Exception {
+        for (int i = this.beans - 1; i >= 0; i--) {
+            this.iocManager.setBean(this.classes[i], this.instances[i], true);
+        }
+        return this.instances;
+    }
+}
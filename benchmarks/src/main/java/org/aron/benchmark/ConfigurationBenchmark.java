@@ -0,0 +1,53 @@
+package org.aron.benchmark;
+
+import org.aron.context.core.ApplicationContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * loadConfiguration 的耗时 Config中@Bean方法的数量为组件数量的1/10
+ * 每次测量前重新初始化容器(不加载@Configuration), 只测量loadConfiguration本身
+ **/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ConfigurationBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    private int components;
+
+    private ApplicationContext context;
+
+    @Setup(Level.Invocation)
+    public void setup() throws Exception {
+        this.context = Synthetic.init(this.components, false);
+        this.context.isloadConfiguration(true);
+    }
+
+    @TearDown(Level.Invocation)
+    public void clear() {
+        Synthetic.clear(this.context);
+    }
+
+    @Benchmark
+    public ApplicationContext loadConfiguration() throws Exception {
+        this.context.loadConfiguration();
+        return this.context;
+    }
+}
@@ -0,0 +1,79 @@
+package org.aron.benchmark;
+
+import org.aron.context.annotation.component.Controller;
+import org.aron.context.core.ApplicationContext;
+import org.aron.context.core.BeanHandle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 容器初始化后 getBean(Class)、getBean(String)、getBean(BeanHandle)、getBeanWithAnnotation 的吞吐量
+ **/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class LookupBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    private int components;
+
+    private ApplicationContext context;
+
+    private Class<?> beanClass;
+
+    private String beanName;
+
+    private BeanHandle<Object> beanHandle;
+
+    @Setup
+    public void setup() throws Exception {
+        this.context = Synthetic.init(this.components, false);
+        // 取中间的组件 避免命中迭代顺序的开头
+        this.beanName = "Component" + this.components / 2;
+        this.beanClass = Synthetic.load(this.components, this.beanName);
+        this.beanHandle = this.context.getBeanHandle(this.beanName);
+    }
+
+    @TearDown
+    public void clear() {
+        Synthetic.clear(this.context);
+    }
+
+    @Benchmark
+    public Object getBeanByClass() throws Exception {
+        return this.context.getBean(this.beanClass);
+    }
+
+    @Benchmark
+    public Object getBeanByName() throws Exception {
+        return this.context.getBean(this.beanName);
+    }
+
+    @Benchmark
+    public Object getBeanByHandle() throws Exception {
+        return this.beanHandle.get();
+    }
+
+    /**
+     * 每10个组件中有1个@Controller
+     */
+    @Benchmark
+    public Object[] getBeanWithAnnotation() {
+        return this.context.getBeanWithAnnotation(Controller.class);
+    }
+}
@@ -0,0 +1,57 @@
+package org.aron.benchmark;
+
+import org.aron.context.core.ApplicationContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Constructor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 容器初始化后运行时setBean的耗时
+ * 每次注册一个新的Extra实例(依赖两个组件) 再将其移除, 测量一次注册与移除的总耗时
+ **/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SetBeanBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    private int components;
+
+    private ApplicationContext context;
+
+    private Constructor<?> constructor;
+
+    @Setup
+    public void setup() throws Exception {
+        this.context = Synthetic.init(this.components, false);
+        this.constructor = Synthetic.load(this.components, "Extra").getDeclaredConstructor();
+    }
+
+    @TearDown
+    public void clear() {
+        Synthetic.clear(this.context);
+    }
+
+    @Benchmark
+    public Object setBean() throws Exception {
+        Object extra = this.constructor.newInstance();
+        this.context.setBean(extra);
+        this.context.removeBean(extra);
+        return extra;
+    }
+}
@@ -0,0 +1,46 @@
+package org.aron.benchmark;
+
+import org.aron.context.core.ApplicationContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AnnotationApplicationContext.init() 在不同组件规模下的耗时
+ * 组件来自编译期生成的组件索引
+ **/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class StartupBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    private int components;
+
+    private ApplicationContext context;
+
+    @Benchmark
+    public ApplicationContext init() throws Exception {
+        this.context = Synthetic.init(this.components, false);
+        return this.context;
+    }
+
+    @TearDown(Level.Invocation)
+    public void clear() {
+        Synthetic.clear(this.context);
+    }
+}
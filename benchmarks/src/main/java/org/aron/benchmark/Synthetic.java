@@ -0,0 +1,42 @@
+package org.aron.benchmark;
+
+import org.aron.context.core.ApplicationContext;
+import org.aron.context.core.impl.AnnotationApplicationContext;
+
+/**
+ * 访问构建时生成的合成组件(SyntheticComponentGenerator)
+ * IocManager在同一个jvm中共享 每次测量前后需要清空容器
+ **/
+final class Synthetic {
+
+    private static final String BASE_PACKAGE = "org.aron.benchmark.synthetic";
+
+    private Synthetic() {
+    }
+
+    /**
+     * 获取规模为size的合成组件包中的类
+     */
+    static Class<?> load(int size, String simpleName) throws ClassNotFoundException {
+        return Class.forName(BASE_PACKAGE + ".s" + size + "." + simpleName);
+    }
+
+    /**
+     * 初始化只包含规模为size的合成组件的容器
+     */
+    static ApplicationContext init(int size, boolean loadConfiguration) throws Exception {
+        ApplicationContext context = new AnnotationApplicationContext(load(size, "App"));
+        context.isloadConfiguration(loadConfiguration);
+        context.init();
+        return context;
+    }
+
+    /**
+     * 清空容器中的bean
+     */
+    static void clear(ApplicationContext context) {
+        if (context != null) {
+            context.removeBeans(context.getAllBean());
+        }
+    }
+}
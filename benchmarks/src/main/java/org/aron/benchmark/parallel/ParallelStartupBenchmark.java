@@ -0,0 +1,112 @@
+package org.aron.benchmark.parallel;
+
+import org.aron.context.annotation.component.Autowired;
+import org.aron.context.annotation.component.Component;
+import org.aron.context.core.ApplicationContext;
+import org.aron.context.core.impl.AnnotationApplicationContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 构造方法耗时的bean 在不同并行度下的容器启动耗时
+ * 8个互不依赖的bean + 1个依赖全部bean的bean, 容器只扫描本类所在的包
+ **/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ParallelStartupBenchmark {
+
+    @Param({"1", "2", "4", "8"})
+    private int parallelism;
+
+    private ApplicationContext context;
+
+    /**
+     * 模拟耗时的构造方法
+     */
+    public abstract static class SlowBean {
+        private static volatile long sink;
+
+        protected SlowBean() {
+            long value = 0;
+            for (int i = 0; i < 5_000_000; i++) {
+                value += i ^ (value >>> 3);
+            }
+            sink = value;
+        }
+    }
+
+    @Component
+    public static class Slow1 extends SlowBean {}
+
+    @Component
+    public static class Slow2 extends SlowBean {}
+
+    @Component
+    public static class Slow3 extends SlowBean {}
+
+    @Component
+    public static class Slow4 extends SlowBean {}
+
+    @Component
+    public static class Slow5 extends SlowBean {}
+
+    @Component
+    public static class Slow6 extends SlowBean {}
+
+    @Component
+    public static class Slow7 extends SlowBean {}
+
+    @Component
+    public static class Slow8 extends SlowBean {}
+
+    @Component
+    public static class Aggregate extends SlowBean {
+        @Autowired
+        private Slow1 slow1;
+        @Autowired
+        private Slow2 slow2;
+        @Autowired
+        private Slow3 slow3;
+        @Autowired
+        private Slow4 slow4;
+        @Autowired
+        private Slow5 slow5;
+        @Autowired
+        private Slow6 slow6;
+        @Autowired
+        private Slow7 slow7;
+        @Autowired
+        private Slow8 slow8;
+    }
+
+    @Benchmark
+    public ApplicationContext init() throws Exception {
+        this.context = new AnnotationApplicationContext(ParallelStartupBenchmark.class);
+        this.context.setParallelism(this.parallelism);
+        this.context.init();
+        return this.context;
+    }
+
+    @TearDown(Level.Invocation)
+    public void clear() {
+        if (this.context != null) {
+            this.context.removeBeans(this.context.getAllBean());
+        }
+    }
+}
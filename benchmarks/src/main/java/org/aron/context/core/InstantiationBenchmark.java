@@ -0,0 +1,71 @@
+package org.aron.context.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Constructor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 对比 Class.newInstance / Constructor.newInstance / BeanFactories生成的Supplier / new 的实例化耗时
+ * 与容器位于同一个包中 以访问包级私有的BeanFactories
+ **/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class InstantiationBenchmark {
+
+    public static class Bean {
+        private int value;
+
+        public Bean() {
+            this.value = 1;
+        }
+    }
+
+    private Class<Bean> beanClass;
+
+    private Constructor<Bean> constructor;
+
+    private Supplier<?> supplier;
+
+    @Setup
+    public void setup() throws Exception {
+        this.beanClass = Bean.class;
+        this.constructor = Bean.class.getDeclaredConstructor();
+        this.supplier = BeanFactories.of(Bean.class);
+    }
+
+    @Benchmark
+    @SuppressWarnings("deprecation")
+    public Object classNewInstance() throws Exception {
+        return this.beanClass.newInstance();
+    }
+
+    @Benchmark
+    public Object constructorNewInstance() throws Exception {
+        return this.constructor.newInstance();
+    }
+
+    @Benchmark
+    public Object supplier() {
+        return this.supplier.get();
+    }
+
+    @Benchmark
+    public Object direct() {
+        return new Bean();
+    }
+}
@@ -0,0 +1,156 @@
+package org.aron.context.indexer;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * 编译期生成类索引 META-INF/fly.components
+ * 每行一个类: 类名=注解类名,注解类名
+ * 1. 记录本模块编译的所有类及其成员类(包括非组件类) 与扫包得到的类一致, 局部类与匿名类除外
+ * 2. 只记录类上保留到运行时的注解 与扫包时从class文件读取的注解一致
+ * 3. 增量编译时合并已有的索引: 本次编译的类覆盖原来的记录, 已不存在的类从索引中删除
+ * 4. 同一个类存在多个组件注解时 编译报错
+ * 运行时class根目录或jar中存在索引文件则直接读取索引 无需扫描class目录
+ **/
+@SupportedAnnotationTypes("*")
+public class ComponentIndexProcessor extends AbstractProcessor {
+
+    static final String LOCATION = "META-INF/fly.components";
+
+    private static final List<String> COMPONENTS = Arrays.asList(
+            "org.aron.context.annotation.component.Component",
+            "org.aron.context.annotation.component.Service",
+            "org.aron.context.annotation.component.Controller",
+            "org.aron.context.annotation.component.Resource",
+            "org.aron.context.annotation.Configuration");
+
+    /**
+     * 类名 -> 索引行中的注解部分
+     */
+    private final Map<String, String> entries = new TreeMap<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (Element element : roundEnv.getRootElements()) {
+            if (element.getKind().isClass() || element.getKind().isInterface()) {
+                index((TypeElement) element);
+            }
+        }
+        if (roundEnv.processingOver() && !this.entries.isEmpty()) {
+            write();
+        }
+        return false;
+    }
+
+    /**
+     * 记录类及其成员类
+     */
+    private void index(TypeElement type) {
+        String className = processingEnv.getElementUtils().getBinaryName(type).toString();
+        List<String> names = new ArrayList<>();
+        int components = 0;
+        for (AnnotationMirror mirror : type.getAnnotationMirrors()) {
+            TypeElement annotation = (TypeElement) mirror.getAnnotationType().asElement();
+            Retention retention = annotation.getAnnotation(Retention.class);
+            if (retention == null || retention.value() != RetentionPolicy.RUNTIME) {
+                continue;
+            }
+            String name = processingEnv.getElementUtils().getBinaryName(annotation).toString();
+            names.add(name);
+            if (COMPONENTS.contains(name)) {
+                components++;
+            }
+        }
+        if (components > 1) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    type.getQualifiedName() + " cannot have multiple bean component annotations", type);
+        }
+        this.entries.put(className, String.join(",", names));
+        for (Element element : type.getEnclosedElements()) {
+            if (element.getKind().isClass() || element.getKind().isInterface()) {
+                index((TypeElement) element);
+            }
+        }
+    }
+
+    /**
+     * 合并已有的索引后写入
+     */
+    private void write() {
+        Map<String, String> merged = new TreeMap<>(this.entries);
+        read().forEach((className, line) -> {
+            if (!merged.containsKey(className) && exists(className)) {
+                merged.put(className, line);
+            }
+        });
+        try {
+            FileObject file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", LOCATION);
+            try (Writer writer = new OutputStreamWriter(file.openOutputStream(), StandardCharsets.UTF_8)) {
+                writer.write("# fly context class index\n");
+                for (Map.Entry<String, String> entry : merged.entrySet()) {
+                    writer.write(entry.getKey() + "=" + entry.getValue() + "\n");
+                }
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "unable to write component index " + LOCATION + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * 读取上一次编译生成的索引
+     * @return 不存在时返回空
+     */
+    private Map<String, String> read() {
+        Map<String, String> entries = new TreeMap<>();
+        try {
+            FileObject file = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", LOCATION);
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(file.openInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    int eq = line.indexOf('=');
+                    if (eq > 0 && !line.startsWith("#")) {
+                        entries.put(line.substring(0, eq), line.substring(eq + 1));
+                    }
+                }
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            // 第一次编译 没有索引文件
+        }
+        return entries;
+    }
+
+    /**
+     * 本次未编译的类是否仍然存在 源文件或class文件被删除的类不再存在
+     */
+    private boolean exists(String className) {
+        return processingEnv.getElementUtils().getTypeElement(className.replace('$', '.')) != null;
+    }
+}
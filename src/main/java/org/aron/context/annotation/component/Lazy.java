@@ -0,0 +1,14 @@
+package org.aron.context.annotation.component;
+
+import java.lang.annotation.*;
+
+/**
+ * 延迟加载 容器启动时只注册不实例化
+ * 第一次getBean或依赖注入时实例化; 字段类型为接口时注入代理 调用方法时才实例化
+ **/
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Lazy {
+    boolean value() default true;
+}
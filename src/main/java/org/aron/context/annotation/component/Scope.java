@@ -0,0 +1,28 @@
+package org.aron.context.annotation.component;
+
+import java.lang.annotation.*;
+
+/**
+ * bean的作用域
+ * 1. singleton: 容器中只有一个实例(默认)
+ * 2. prototype: 每次getBean或依赖注入时创建新的实例
+ * 3. request: 每个BeanScope(一次请求或一个任务)内只有一个实例 在作用域内第一次使用时创建, 作用域结束时释放;
+ *    只能注入到接口类型的字段 注入的是按当前作用域获取实例的代理
+ * 4. poolSize 大于0时 prototype实例从对象池中获取, 调用 releaseBean 归还对象池
+ * 5. 修饰@Bean方法时只支持singleton与prototype prototype表示每次获取时重新调用该方法
+ **/
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Scope {
+
+    String SINGLETON = "singleton";
+
+    String PROTOTYPE = "prototype";
+
+    String REQUEST = "request";
+
+    String value() default SINGLETON;
+
+    int poolSize() default 0;
+}
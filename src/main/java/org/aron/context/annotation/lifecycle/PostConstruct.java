@@ -0,0 +1,13 @@
+package org.aron.context.annotation.lifecycle;
+
+import java.lang.annotation.*;
+
+/**
+ * bean实例化并完成依赖注入后调用的无参方法
+ * 容器初始化时按依赖关系分层调用: 依赖的bean先调用, 同一层的bean并行调用
+ **/
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface PostConstruct {
+}
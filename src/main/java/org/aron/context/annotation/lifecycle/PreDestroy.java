@@ -0,0 +1,13 @@
+package org.aron.context.annotation.lifecycle;
+
+import java.lang.annotation.*;
+
+/**
+ * 容器销毁或request作用域结束时调用的无参方法
+ * 容器销毁时按依赖关系的逆序分层调用: 依赖方先调用, 同一层的bean并行调用
+ **/
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface PreDestroy {
+}
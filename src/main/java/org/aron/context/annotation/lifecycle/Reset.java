@@ -0,0 +1,12 @@
+package org.aron.context.annotation.lifecycle;
+
+import java.lang.annotation.*;
+
+/**
+ * 对象池中的prototype实例归还时调用的无参方法 用于重置实例状态
+ **/
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Reset {
+}
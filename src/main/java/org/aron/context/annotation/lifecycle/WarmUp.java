@@ -0,0 +1,13 @@
+package org.aron.context.annotation.lifecycle;
+
+import java.lang.annotation.*;
+
+/**
+ * 容器初始化完成后在后台调用的无参方法 用于预热缓存、连接池等
+ * 按依赖关系分层并行调用, 不阻塞init(); 通过 ApplicationContext.ready() 等待全部完成
+ **/
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface WarmUp {
+}
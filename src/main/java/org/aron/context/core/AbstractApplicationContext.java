@@ -5,17 +5,30 @@ import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.ClassUtils;
 import org.aron.context.annotation.Configuration;
-import org.aron.context.annotation.component.Autowired;
-import org.aron.context.annotation.component.Bean;
+import org.aron.context.core.ContainerSnapshot.MethodEntry;
+import org.aron.context.core.scan.PackageIndex;
+import org.aron.context.core.startup.StartupRecorder;
 import org.aron.context.error.AnnotationException;
 import org.aron.context.error.BeanInstantiationException;
 
+import java.io.IOException;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
-import java.lang.reflect.Modifier;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 @Slf4j
 public abstract class AbstractApplicationContext implements ApplicationContext {
@@ -27,8 +40,52 @@ public abstract class AbstractApplicationContext implements ApplicationContext {
 
     protected String[] filterPackages;
 
+    protected int parallelism = 1;
+
+    protected Executor executor;
+
+    /**
+     * 启动过程记录 未开启时为NOOP
+     */
+    protected StartupRecorder startupRecorder = StartupRecorder.fromSystemProperty();
+
     protected Set<String> classNames;
 
+    /**
+     * 需要加载并实例化的组件类名
+     */
+    protected Set<String> componentNames;
+
+    /**
+     * 扫包时从class文件读取的 类名 -> 类上的注解类名
+     */
+    protected Map<String, Set<String>> classAnnotations;
+
+    /**
+     * 流水线初始化时已经加载的 类名 -> 类 实例化时不再重复加载
+     */
+    protected Map<String, Class<?>> loadedClasses = Collections.emptyMap();
+
+    /**
+     * 按包名查询类的索引 扫包完成后构建
+     */
+    protected PackageIndex packageIndex;
+
+    /**
+     * 快照文件 为空时不使用快照
+     */
+    protected Path snapshotFile;
+
+    /**
+     * 本次启动回放的快照 未回放时为空
+     */
+    protected ContainerSnapshot snapshot;
+
+    /**
+     * 本次启动执行的@Bean方法 用于生成快照
+     */
+    private final List<MethodEntry> beanMethods = new ArrayList<>();
+
     @Getter
     protected Class<?> appClass;
 
@@ -45,6 +102,16 @@ public abstract class AbstractApplicationContext implements ApplicationContext {
         this.filterPackages = filterPackages;
     }
 
+    @Override
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    @Override
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
     @Override
     public void isloadConfiguration(boolean auto) {
         this.loadConfiguration = auto;
@@ -52,41 +119,194 @@ public abstract class AbstractApplicationContext implements ApplicationContext {
 
     @Override
     public void doInstance(Set<String> classNames) throws BeanInstantiationException, AnnotationException, ClassNotFoundException {
-        iocManager = IocManager.getInstance(classNames);
-        iocManager.doInstance();
+        try (StartupRecorder.Phase ignored = this.startupRecorder.phase("loadClasses")) {
+            iocManager = IocManager.getInstance(classNames, this.loadedClasses);
+            if (this.classAnnotations != null) {
+                iocManager.indexClassNames(this.classAnnotations);
+            }
+        }
+        iocManager.setParallelism(this.parallelism);
+        iocManager.setExecutor(this.executor);
+        iocManager.setRecorder(this.startupRecorder);
+        if (this.snapshot != null) {
+            iocManager.doInstance(this.snapshot);
+        } else {
+            iocManager.doInstance();
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> ready() {
+        return this.iocManager.getReadiness();
+    }
+
+    @Override
+    public void destroy() throws BeanInstantiationException, AnnotationException {
+        this.iocManager.destroy();
+    }
+
+    @Override
+    public BeanScope openScope() {
+        return BeanScope.open();
+    }
+
+    @Override
+    public void freeze() {
+        this.iocManager.freeze();
+    }
+
+    @Override
+    public void setSnapshotFile(Path snapshotFile) {
+        this.snapshotFile = snapshotFile;
+    }
+
+    /**
+     * 读取快照 并恢复扫包结果
+     * @return 未设置快照文件或快照失效时返回false
+     */
+    protected boolean restoreSnapshot() {
+        this.snapshot = null;
+        if (this.snapshotFile == null) {
+            return false;
+        }
+        try (StartupRecorder.Phase ignored = this.startupRecorder.phase("snapshot")) {
+            this.snapshot = ContainerSnapshot.read(this.snapshotFile, snapshotKey());
+        }
+        if (this.snapshot == null) {
+            return false;
+        }
+        this.classNames = new HashSet<>(this.snapshot.getClassNames());
+        this.componentNames = new LinkedHashSet<>(this.snapshot.getComponentNames());
+        this.classAnnotations = new HashMap<>(this.snapshot.getClassAnnotations());
+        this.packageIndex = new PackageIndex(this.classNames);
+        log.debug("restore {} classes from snapshot {}", this.classNames.size(), this.snapshotFile);
+        return true;
+    }
+
+    /**
+     * 初始化完成后写入快照 已从快照回放时不再写入
+     * 写入失败不影响容器的使用
+     */
+    protected void writeSnapshot() {
+        if (this.snapshotFile == null || this.snapshot != null) {
+            return;
+        }
+        try {
+            ContainerSnapshot.capture(snapshotKey(), this.classNames, this.componentNames, this.classAnnotations,
+                    this.iocManager.snapshotBeans(), this.beanMethods, snapshotSources(), getClassLoader()).write(this.snapshotFile);
+            log.debug("write snapshot {}", this.snapshotFile);
+        } catch (IOException e) {
+            log.warn("unable to write snapshot {}", this.snapshotFile, e);
+        }
+    }
+
+    /**
+     * 影响扫包结果的目录与文件 变化时快照失效
+     * @return 默认为空 只记录扫描到的class文件
+     */
+    protected Collection<Path> snapshotSources() {
+        return Collections.emptyList();
+    }
+
+    /**
+     * 影响扫包结果的参数 不一致时快照失效
+     */
+    private String snapshotKey() {
+        return (this.appClass == null ? "" : this.appClass.getName())
+                + "|" + Arrays.toString(this.scanPackages)
+                + "|" + Arrays.toString(this.filterPackages)
+                + "|" + this.loadConfiguration;
+    }
+
+    protected ClassLoader getClassLoader() {
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        return classLoader != null ? classLoader : AbstractApplicationContext.class.getClassLoader();
+    }
+
+    @Override
+    public void setStartupRecording(boolean enabled) {
+        this.startupRecorder = enabled ? StartupRecorder.create() : StartupRecorder.NOOP;
+    }
+
+    @Override
+    public StartupRecorder getStartupRecorder() {
+        return this.startupRecorder;
     }
 
     @Override
     public void loadConfiguration() throws BeanInstantiationException, AnnotationException {
         if (!loadConfiguration) { return; }
+        try (StartupRecorder.Phase ignored = this.startupRecorder.phase("loadConfiguration")) {
+            doLoadConfiguration();
+        }
+    }
+
+    private void doLoadConfiguration() throws BeanInstantiationException, AnnotationException {
         log.debug("----------开始加载@Configuration的注解类----------");
         Object[] objects = this.getBeanWithAnnotation(Configuration.class);
+        if (this.snapshot != null) {
+            replayConfiguration(objects);
+            this.iocManager.removeBeans(Arrays.asList(objects));
+            return;
+        }
+        this.beanMethods.clear();
+        List<BeanMethod> methods = new ArrayList<>();
+        List<Object> targets = new ArrayList<>();
         for (Object object : objects) {
-            Method[] methods = object.getClass().getDeclaredMethods();
-            for (Method method : methods) {
-                if (method.isAnnotationPresent(Bean.class) || method.isAnnotationPresent(Autowired.class)) {
-                    // 过滤静态方法
-                    if (Modifier.isStatic(method.getModifiers())) {
-                        throw new AnnotationException("@Bean cannot be configured on a static modified method");
-                    }
-                    Class<?> clazz = method.getReturnType();
-                    // bean对象已经存在于ioc容器中 抛出异常
-                    if (this.getBean(clazz) != null) {
-                        throw new BeanInstantiationException(clazz + " is already exists in the ioc container");
-                    }
-                    Bean bean;
-                    String alias = null;
-                    if ((bean = method.getAnnotation(Bean.class)) != null) {
-                        alias = bean.value();
-                    }
-                    this.iocManager.setBean(method, object, alias);
-                }
+            for (BeanMethod method : BeanMethod.of(object.getClass())) {
+                methods.add(method);
+                targets.add(object);
+                this.beanMethods.add(methodEntry(method.getMethod(), method.getAlias()));
             }
-            this.iocManager.removeBean(object);
         }
+        this.iocManager.setBeans(methods.toArray(new BeanMethod[0]), targets.toArray());
+        this.iocManager.removeBeans(Arrays.asList(objects));
         log.debug("----------加载@Configuration的注解类完毕！----------");
     }
 
+    /**
+     * 按快照记录的顺序执行@Bean方法 无需遍历配置类的所有方法
+     * @param objects 配置类的实例
+     */
+    private void replayConfiguration(Object[] objects) throws BeanInstantiationException, AnnotationException {
+        Map<String, Object> configurations = new HashMap<>(objects.length);
+        for (Object object : objects) {
+            configurations.put(object.getClass().getName(), object);
+        }
+        List<MethodEntry> entries = this.snapshot.getMethods();
+        BeanMethod[] methods = new BeanMethod[entries.size()];
+        Object[] targets = new Object[entries.size()];
+        for (int i = 0; i < methods.length; i++) {
+            MethodEntry entry = entries.get(i);
+            Object object = configurations.get(entry.className);
+            if (object == null) {
+                throw new BeanInstantiationException("configuration[" + entry.className + "] is not in the ioc container");
+            }
+            Method method;
+            try {
+                Class<?>[] parameterTypes = new Class<?>[entry.parameterTypes.length];
+                for (int j = 0; j < parameterTypes.length; j++) {
+                    parameterTypes[j] = ClassUtils.getClass(entry.parameterTypes[j], false);
+                }
+                method = object.getClass().getDeclaredMethod(entry.methodName, parameterTypes);
+            } catch (ClassNotFoundException | NoSuchMethodException e) {
+                throw new BeanInstantiationException("method[" + entry.className + "." + entry.methodName + "] not found: " + e.getMessage(), e);
+            }
+            methods[i] = BeanMethod.of(method, entry.alias);
+            targets[i] = object;
+        }
+        this.iocManager.setBeans(methods, targets);
+    }
+
+    private static MethodEntry methodEntry(Method method, String alias) {
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        String[] names = new String[parameterTypes.length];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = parameterTypes[i].getName();
+        }
+        return new MethodEntry(method.getDeclaringClass().getName(), method.getName(), names, alias);
+    }
+
     public void showBean() {
         this.iocManager.getIoc().forEach((name, bean) -> log.debug("beanName: {}, bean: {}", name, bean));
     }
@@ -128,21 +348,84 @@ public abstract class AbstractApplicationContext implements ApplicationContext {
     }
 
     @Override
-    public Collection<Object> getAllBean() {
-        return this.iocManager.getIoc().values();
+    public <T> T getBean(BeanHandle<T> handle) throws BeanInstantiationException, AnnotationException {
+        return handle.get();
     }
 
     @Override
-    public Set<Class<?>> getClassWithAnnotation(Class<? extends Annotation> annotation) {
-        Set<Class<?>> classSet = new HashSet<>(0);
-        for (Class clazz : this.iocManager.getClassSet()) {
-            if (clazz.isAnnotationPresent(annotation)) {
-                classSet.add(clazz);
+    public <T> BeanHandle<T> getBeanHandle(String beanName) {
+        return this.iocManager.getBeanHandle(beanName);
+    }
+
+    @Override
+    public <T> BeanHandle<T> getBeanHandle(Class<T> clazz) {
+        return this.iocManager.getBeanHandle(clazz);
+    }
+
+    @Override
+    public <T> Collection<T> getBeansOfType(Class<T> clazz) throws BeanInstantiationException, AnnotationException {
+        return this.iocManager.getBeansOfType(clazz);
+    }
+
+    @Override
+    public void removeBean(Object instance) {
+        this.iocManager.removeBean(instance);
+    }
+
+    @Override
+    public void removeBeans(Collection<?> instances) {
+        this.iocManager.removeBeans(instances);
+    }
+
+    @Override
+    public boolean releaseBean(Object instance) {
+        return this.iocManager.releaseBean(instance);
+    }
+
+    @Override
+    public Collection<Object> getAllBean() {
+        return this.getBeanWithType(bean -> true);
+    }
+
+    /**
+     * 获取类型满足条件的bean 延迟加载的bean只有满足条件时才实例化
+     * 未开启BeanScope时不包含request作用域的bean
+     * @param filter bean类型过滤条件
+     */
+    protected List<Object> getBeanWithType(Predicate<Class<?>> filter) {
+        List<Object> list = new ArrayList<>(0);
+        for (Object value : this.iocManager.getIoc().values()) {
+            if (IocManager.isAvailable(value) && filter.test(IocManager.typeOf(value))) {
+                try {
+                    list.add(this.iocManager.getObject(value));
+                } catch (AnnotationException | BeanInstantiationException e) {
+                    throw new IllegalStateException(e.getMessage(), e);
+                }
             }
         }
-        return classSet;
+        return list;
     }
 
+    @Override
+    public Set<Class<?>> getClassWithAnnotation(Class<? extends Annotation> annotation) {
+        return this.iocManager.getClassWithAnnotation(annotation);
+    }
+
+    @Override
+    public Stream<Class<?>> streamClassWithAnnotation(Class<? extends Annotation> annotation) {
+        return this.iocManager.getClassWithAnnotation(annotation).stream();
+    }
+
+    @Override
+    public Stream<Object> streamBeanWithAnnotation(Class<? extends Annotation> annotation) {
+        return this.iocManager.lookupWithAnnotation(annotation).stream().filter(IocManager::isAvailable).map(bean -> {
+            try {
+                return this.iocManager.getObject(bean);
+            } catch (AnnotationException | BeanInstantiationException e) {
+                throw new IllegalStateException(e.getMessage(), e);
+            }
+        });
+    }
 
     @Override
     public Set<Class<?>> getClassByPackage(String ... packages) throws ClassNotFoundException {
@@ -150,12 +433,13 @@ public abstract class AbstractApplicationContext implements ApplicationContext {
         if (ArrayUtils.isEmpty(packages)) {
             return classSet;
         }
-        for (String className : this.classNames) {
-            for (String packageName : packages) {
-                if (className.startsWith(packageName)) {
-                    classSet.add(ClassUtils.getClass(className));
-                }
-            }
+        // 子类未构建索引或扫包结果变化时重建
+        PackageIndex index = this.packageIndex;
+        if (index == null || index.size() != this.classNames.size()) {
+            this.packageIndex = index = new PackageIndex(this.classNames);
+        }
+        for (String packageName : packages) {
+            index.getClasses(packageName, classSet);
         }
         return classSet;
     }
@@ -0,0 +1,106 @@
+package org.aron.context.core;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.ClassUtils;
+
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 注解 -> 类 的索引
+ * 1. 已加载的类按类上的注解(包含@Inherited继承的注解)直接索引
+ * 2. 扫包时从class文件读取注解的类只记录类名, 第一次按注解查询时才加载 之后不再重复加载
+ * 3. 查询结果为不可变的快照
+ **/
+@Slf4j
+class AnnotationIndex {
+
+    /**
+     * 缓存类上的注解类型
+     */
+    private static final ClassValue<List<Class<? extends Annotation>>> ANNOTATIONS = new ClassValue<List<Class<? extends Annotation>>>() {
+        @Override
+        protected List<Class<? extends Annotation>> computeValue(Class<?> type) {
+            List<Class<? extends Annotation>> list = new ArrayList<>();
+            for (Annotation annotation : type.getAnnotations()) {
+                list.add(annotation.annotationType());
+            }
+            return Collections.unmodifiableList(list);
+        }
+    };
+
+    /**
+     * 注解类名 -> 已加载的类
+     */
+    private final Map<String, Set<Class<?>>> classes = new ConcurrentHashMap<>();
+
+    /**
+     * 注解类名 -> 尚未加载的类名
+     */
+    private final Map<String, Set<String>> classNames = new ConcurrentHashMap<>();
+
+    static List<Class<? extends Annotation>> annotationsOf(Class<?> clazz) {
+        return ANNOTATIONS.get(clazz);
+    }
+
+    /**
+     * 索引已加载的类
+     */
+    void add(Class<?> clazz) {
+        for (Class<? extends Annotation> annotation : annotationsOf(clazz)) {
+            this.classes.computeIfAbsent(annotation.getName(), k -> ConcurrentHashMap.newKeySet()).add(clazz);
+        }
+    }
+
+    /**
+     * 移除类 用于热替换
+     */
+    void remove(Class<?> clazz) {
+        for (Class<? extends Annotation> annotation : annotationsOf(clazz)) {
+            this.classes.computeIfPresent(annotation.getName(), (k, set) -> {
+                set.remove(clazz);
+                return set.isEmpty() ? null : set;
+            });
+        }
+    }
+
+    /**
+     * 索引尚未加载的类
+     * @param className 类名
+     * @param annotations 类上的注解类名
+     */
+    void add(String className, Collection<String> annotations) {
+        for (String annotation : annotations) {
+            this.classNames.computeIfAbsent(annotation, k -> ConcurrentHashMap.newKeySet()).add(className);
+        }
+    }
+
+    /**
+     * 获取被annotation修饰的类 尚未加载的类在此时加载(不初始化)
+     */
+    Set<Class<?>> get(Class<? extends Annotation> annotation) {
+        String name = annotation.getName();
+        if (this.classNames.containsKey(name)) {
+            // 加载完成前 其他线程的查询需要等待
+            synchronized (this) {
+                Set<String> names = this.classNames.remove(name);
+                for (String className : names == null ? Collections.<String>emptySet() : names) {
+                    try {
+                        add(ClassUtils.getClass(className, false));
+                    } catch (ClassNotFoundException e) {
+                        log.warn("class not found: {}", className);
+                    }
+                }
+            }
+        }
+        Set<Class<?>> set = this.classes.get(name);
+        return set == null ? Collections.emptySet() : Collections.unmodifiableSet(new LinkedHashSet<>(set));
+    }
+}
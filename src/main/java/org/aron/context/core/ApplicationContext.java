@@ -1,17 +1,29 @@
 package org.aron.context.core;
 
+import org.aron.context.core.startup.StartupRecorder;
 import org.aron.context.error.AnnotationException;
 import org.aron.context.error.BeanInstantiationException;
 
+import java.io.IOException;
 import java.lang.annotation.Annotation;
+import java.nio.file.Path;
 import java.util.Collection;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.stream.Stream;
 
 public interface ApplicationContext {
 
     void init() throws BeanInstantiationException, AnnotationException, ClassNotFoundException;
 
+    /**
+     * 异步初始化 扫包、加载类与实例化以流水线方式重叠执行
+     * 返回的future结束之前不能使用容器; 失败时future以init()抛出的异常结束
+     */
+    CompletableFuture<ApplicationContext> initAsync();
+
     void loadConfiguration() throws BeanInstantiationException, AnnotationException;
 
     /**
@@ -25,6 +37,43 @@ public interface ApplicationContext {
 
     <T> T getBean(Class<T> clazz, boolean newInstance) throws BeanInstantiationException, AnnotationException;
 
+    /**
+     * 通过句柄获取bean 只读取一次数组
+     */
+    <T> T getBean(BeanHandle<T> handle) throws BeanInstantiationException, AnnotationException;
+
+    /**
+     * 获取beanName对应的句柄 解析一次后在热点路径上反复使用
+     */
+    <T> BeanHandle<T> getBeanHandle(String beanName);
+
+    /**
+     * 获取clazz类或其实现类、子类的bean对应的句柄
+     * @return 容器中不存在时返回null
+     */
+    <T> BeanHandle<T> getBeanHandle(Class<T> clazz);
+
+    /**
+     * 获取clazz类及其实现类、子类的所有bean
+     */
+    <T> Collection<T> getBeansOfType(Class<T> clazz) throws BeanInstantiationException, AnnotationException;
+
+    /**
+     * 从容器中移除bean 按引用比较实例
+     */
+    void removeBean(Object instance);
+
+    /**
+     * 批量移除bean
+     */
+    void removeBeans(Collection<?> instances);
+
+    /**
+     * 将prototype bean的实例归还对象池 归还前调用@Reset修饰的方法
+     * @return bean未设置对象池或对象池已满时返回false
+     */
+    boolean releaseBean(Object instance);
+
     <T> T setBean(Class<T> clazz) throws AnnotationException, BeanInstantiationException;
 
     void setBean(Class<?> clazz, boolean newInstance) throws AnnotationException, BeanInstantiationException;
@@ -39,13 +88,83 @@ public interface ApplicationContext {
 
     Collection<Object> getAllBean();
 
+    /**
+     * 获取被annotation修饰的类 返回不可变的快照
+     */
     Set<Class<?>> getClassWithAnnotation(Class<? extends Annotation> annotation);
 
+    /**
+     * 以流的方式获取被annotation修饰的类
+     */
+    Stream<Class<?>> streamClassWithAnnotation(Class<? extends Annotation> annotation);
+
+    /**
+     * 以流的方式获取被annotation修饰的bean 延迟加载的bean在读取到时才实例化
+     */
+    Stream<Object> streamBeanWithAnnotation(Class<? extends Annotation> annotation);
+
     void isloadConfiguration(boolean auto);
 
     void setScanPackages(String[] scanPackages);
 
     void setFilterPackages(String[] filterPackages);
 
+    /**
+     * 开启request作用域并绑定到当前线程 需在同一线程上关闭
+     * 作用域内创建的request作用域bean在关闭时释放
+     */
+    BeanScope openScope();
+
+    /**
+     * 冻结ioc容器 需在init()之后调用
+     * 冻结后按名称、类型、注解查询bean不加锁且不分配对象; 注册与移除bean抛出IllegalStateException
+     */
+    void freeze();
+
+    /**
+     * 设置容器快照文件 需在init()之前设置
+     * 快照有效时跳过扫包与依赖分析直接回放, 否则正常初始化后写入快照
+     * class文件、jar包或扫包参数变化时快照自动失效
+     */
+    void setSnapshotFile(Path snapshotFile);
+
+    /**
+     * @WarmUp方法全部完成时结束的future init()返回时@WarmUp可能仍在后台执行
+     */
+    CompletableFuture<Void> ready();
+
+    /**
+     * 销毁容器 按依赖关系的逆序分层并行调用@PreDestroy, 并移除容器中的bean
+     */
+    void destroy() throws BeanInstantiationException, AnnotationException;
+
+    /**
+     * 监听扫包的根目录 热替换修改过的类, 只替换受影响的bean并重新注入依赖它们的bean
+     * 需在init()之后调用 仅用于开发环境; 关闭返回的ClassWatcher停止监听
+     */
+    ClassWatcher watch() throws IOException;
+
+    /**
+     * 是否记录启动过程 需在init()之前设置
+     * 也可以通过系统属性 fly.startup.record=true 开启
+     */
+    void setStartupRecording(boolean enabled);
+
+    /**
+     * 获取启动过程记录 init()之后通过 toJson() 输出报告
+     */
+    StartupRecorder getStartupRecorder();
+
+    /**
+     * 设置实例化bean的并行度 默认为1 即串行实例化
+     */
+    void setParallelism(int parallelism);
+
+    /**
+     * 设置并行实例化bean、调用生命周期方法使用的线程池 未设置时按并行度创建
+     * @WarmUp 在该线程池中后台执行 未设置时使用ForkJoinPool.commonPool()
+     */
+    void setExecutor(Executor executor);
+
     Set<Class<?>> getClassByPackage(String ... pkg) throws ClassNotFoundException;
 }
@@ -0,0 +1,72 @@
+package org.aron.context.core;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.function.Supplier;
+
+/**
+ * bean实例工厂
+ * 1. 每个类只生成一次 Supplier 结果缓存在ClassValue中
+ * 2. 优先通过LambdaMetafactory生成直接调用无参构造方法的Supplier, 与 new 一致可被JIT内联
+ * 3. 无法生成时退化为MethodHandle调用构造方法
+ * 4. 没有无参构造方法时 Supplier被调用时抛出异常
+ **/
+final class BeanFactories {
+
+    private static final MethodType SUPPLIER_TYPE = MethodType.methodType(Supplier.class);
+
+    private static final MethodType GET_TYPE = MethodType.methodType(Object.class);
+
+    private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(void.class);
+
+    private static final ClassValue<Supplier<?>> FACTORIES = new ClassValue<Supplier<?>>() {
+        @Override
+        protected Supplier<?> computeValue(Class<?> type) {
+            return compile(type);
+        }
+    };
+
+    private BeanFactories() {
+    }
+
+    /**
+     * 获取类的实例工厂
+     * @param clazz 可实例化的类
+     */
+    static Supplier<?> of(Class<?> clazz) {
+        return FACTORIES.get(clazz);
+    }
+
+    private static Supplier<?> compile(Class<?> clazz) {
+        MethodHandles.Lookup lookup;
+        MethodHandle constructor;
+        try {
+            lookup = MethodHandles.privateLookupIn(clazz, MethodHandles.lookup());
+            constructor = lookup.findConstructor(clazz, CONSTRUCTOR_TYPE);
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            return () -> {
+                throw new IllegalStateException("no accessible no-arg constructor", e);
+            };
+        }
+        try {
+            CallSite site = LambdaMetafactory.metafactory(lookup, "get", SUPPLIER_TYPE,
+                    GET_TYPE, constructor, MethodType.methodType(clazz));
+            return (Supplier<?>) site.getTarget().invokeExact();
+        } catch (Throwable e) {
+            // 类加载器不同等原因无法生成lambda时 直接调用MethodHandle
+            MethodHandle handle = constructor.asType(GET_TYPE);
+            return () -> {
+                try {
+                    return handle.invokeExact();
+                } catch (RuntimeException | Error ex) {
+                    throw ex;
+                } catch (Throwable ex) {
+                    throw new IllegalStateException(ex);
+                }
+            };
+        }
+    }
+}
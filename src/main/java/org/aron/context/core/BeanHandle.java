@@ -0,0 +1,42 @@
+package org.aron.context.core;
+
+import lombok.Getter;
+import org.aron.context.error.AnnotationException;
+import org.aron.context.error.BeanInstantiationException;
+
+/**
+ * bean句柄 解析一次后按id读取bean
+ * 1. id与beanName绑定 同名bean被覆盖或重新注册后句柄仍然有效
+ * 2. get() 只读取一次数组, 不计算hash、不按类型查找
+ * 3. 延迟加载的bean在第一次get()时实例化; prototype作用域的bean每次返回新的实例
+ **/
+public final class BeanHandle<T> {
+
+    private final IocManager iocManager;
+
+    @Getter
+    private final int id;
+
+    @Getter
+    private final String beanName;
+
+    BeanHandle(IocManager iocManager, int id, String beanName) {
+        this.iocManager = iocManager;
+        this.id = id;
+        this.beanName = beanName;
+    }
+
+    /**
+     * 获取bean
+     * @return bean不存在或已被移除时返回null
+     */
+    @SuppressWarnings("unchecked")
+    public T get() throws BeanInstantiationException, AnnotationException {
+        return (T) this.iocManager.getBean(this.id);
+    }
+
+    @Override
+    public String toString() {
+        return "BeanHandle[" + this.id + ":" + this.beanName + "]";
+    }
+}
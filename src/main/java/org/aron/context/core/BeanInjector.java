@@ -0,0 +1,231 @@
+package org.aron.context.core;
+
+import org.aron.context.core.InjectionPlan.FieldWriter;
+import org.aron.context.error.AnnotationException;
+import org.aron.context.error.BeanInstantiationException;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 增量依赖注入
+ * 1. 新注册的bean只为自身的@Autowired字段注入依赖
+ * 2. 容器中暂不存在的依赖 记录到 依赖类型 -> 等待注入的字段 的反向索引中
+ * 3. 新bean注册后只填充等待其类型的字段, 无需重新遍历整个容器
+ * 4. 字段加入等待队列后再次查找依赖, 避免与并发注册的bean错过
+ * 5. 从快照回放时 按记录的beanName直接注入
+ **/
+class BeanInjector {
+
+    private final IocManager iocManager;
+
+    /**
+     * 依赖类型 -> 等待注入的字段
+     */
+    private final Map<Class<?>, List<InjectionPoint>> pending = new ConcurrentHashMap<>();
+
+    BeanInjector(IocManager iocManager) {
+        this.iocManager = iocManager;
+    }
+
+    /**
+     * 为实例对象的@Autowired字段注入依赖
+     * 容器中暂不存在的依赖加入等待队列
+     * @param instance 对象实例
+     */
+    void inject(Object instance) throws AnnotationException, BeanInstantiationException {
+        InjectionPlan plan = InjectionPlan.of(instance.getClass());
+        if (plan.isEmpty()) {
+            return;
+        }
+        for (FieldWriter writer : plan.getWriters()) {
+            Class<?> clazz = writer.getType();
+            Object dependency = this.iocManager.lookup(clazz);
+            if (dependency != null) {
+                writer.setIfAbsent(instance, valueOf(clazz, dependency));
+            } else {
+                InjectionPoint point = new InjectionPoint(instance, writer);
+                this.pending.compute(clazz, (k, points) -> {
+                    points = points == null ? new ArrayList<>() : points;
+                    points.add(point);
+                    return points;
+                });
+                // 加入等待队列前 依赖可能已被其他线程注册并填充完毕
+                dependency = this.iocManager.lookup(clazz);
+                if (dependency != null && unpend(clazz, point)) {
+                    writer.setIfAbsent(instance, valueOf(clazz, dependency));
+                }
+            }
+        }
+    }
+
+    /**
+     * 按快照记录的beanName直接注入 无需按类型查找
+     * @param instance 对象实例
+     * @param dependencies 与注入计划中的字段一一对应的beanName
+     * @return 字段数量不一致、beanName为空或bean不存在、类型不匹配时返回false 此时不写入任何字段
+     */
+    boolean wire(Object instance, String[] dependencies) throws AnnotationException, BeanInstantiationException {
+        FieldWriter[] writers = InjectionPlan.of(instance.getClass()).getWriters();
+        if (writers.length != dependencies.length) {
+            return false;
+        }
+        Object[] beans = new Object[writers.length];
+        for (int i = 0; i < writers.length; i++) {
+            beans[i] = dependencies[i] == null ? null : this.iocManager.lookup(dependencies[i]);
+            if (beans[i] == null || !writers[i].getType().isAssignableFrom(BeanRegistry.typeOf(beans[i]))) {
+                return false;
+            }
+        }
+        for (int i = 0; i < writers.length; i++) {
+            writers[i].setIfAbsent(instance, valueOf(writers[i].getType(), beans[i]));
+        }
+        return true;
+    }
+
+    /**
+     * 按字段类型重新注入 覆盖原来的值
+     * @param instance 对象实例
+     * @param writer 字段
+     * @return 容器中没有匹配的bean时返回false 不修改字段
+     */
+    boolean rewire(Object instance, FieldWriter writer) throws AnnotationException, BeanInstantiationException {
+        Object dependency = this.iocManager.lookup(writer.getType());
+        if (dependency == null) {
+            return false;
+        }
+        writer.set(instance, valueOf(writer.getType(), dependency));
+        return true;
+    }
+
+    /**
+     * 新bean注册后 填充等待其类型的字段
+     * 1. 字段类型与bean类型一致
+     * 2. 字段类型不可实例且bean属于其实现类或子类
+     * @param bean 新注册的bean
+     */
+    void resolve(Object bean) throws AnnotationException, BeanInstantiationException {
+        if (this.pending.isEmpty()) {
+            return;
+        }
+        Class<?> clazz = BeanRegistry.typeOf(bean);
+        for (Class<?> type : BeanRegistry.hierarchyOf(clazz)) {
+            if (type != clazz && !IocManager.unInstance(type)) {
+                continue;
+            }
+            List<InjectionPoint> points = this.pending.remove(type);
+            if (points == null) {
+                continue;
+            }
+            for (InjectionPoint point : points) {
+                point.writer.setIfAbsent(point.owner, valueOf(type, bean));
+            }
+        }
+    }
+
+    /**
+     * 移除bean时 丢弃其等待注入的字段
+     * @param beans 被移除的bean
+     */
+    void forget(Collection<Object> beans) {
+        if (this.pending.isEmpty()) {
+            return;
+        }
+        Set<Object> owners = Collections.newSetFromMap(new IdentityHashMap<>());
+        owners.addAll(beans);
+        for (Class<?> type : this.pending.keySet()) {
+            this.pending.computeIfPresent(type, (k, points) -> {
+                points.removeIf(point -> owners.contains(point.owner));
+                return points.isEmpty() ? null : points;
+            });
+        }
+    }
+
+    /**
+     * 等待注入的字段
+     * @return 类名.字段名(字段类型)
+     */
+    List<String> unresolved() {
+        List<String> list = new ArrayList<>();
+        for (Class<?> type : this.pending.keySet()) {
+            this.pending.computeIfPresent(type, (k, points) -> {
+                for (InjectionPoint point : points) {
+                    list.add(point.owner.getClass().getName() + "." + point.writer.getField().getName() + "(" + k.getName() + ")");
+                }
+                return points;
+            });
+        }
+        Collections.sort(list);
+        return list;
+    }
+
+    /**
+     * 从等待队列中移除字段
+     * @return 字段仍在等待队列中时返回true
+     */
+    private boolean unpend(Class<?> type, InjectionPoint point) {
+        boolean[] removed = new boolean[1];
+        this.pending.computeIfPresent(type, (k, points) -> {
+            removed[0] = points.remove(point);
+            return points.isEmpty() ? null : points;
+        });
+        return removed[0];
+    }
+
+    /**
+     * 获取注入字段的值
+     * 1. 普通bean直接注入
+     * 2. 需要延迟获取的bean 字段类型为接口时注入代理, 否则立即获取实例
+     * 3. request作用域的bean 只能注入代理
+     * @param type 字段类型
+     * @param bean 容器中保存的bean
+     */
+    private Object valueOf(Class<?> type, Object bean) throws AnnotationException, BeanInstantiationException {
+        if (!(bean instanceof BeanProvider)) {
+            return bean;
+        }
+        BeanProvider provider = (BeanProvider) bean;
+        if (provider.isDeferred() && type.isInterface()) {
+            return proxy(type, provider);
+        }
+        if (provider instanceof ScopedBean) {
+            throw new AnnotationException("request-scoped bean[" + provider.getType().getName()
+                    + "] can only be injected into interface-typed fields, found " + type.getName());
+        }
+        return provider.getObject();
+    }
+
+    /**
+     * 创建接口代理 每次调用方法时从提供者获取实例
+     */
+    private static Object proxy(Class<?> type, BeanProvider provider) {
+        return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            try {
+                return method.invoke(provider.getObject(), args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        });
+    }
+
+    /**
+     * 等待注入的字段
+     */
+    private static class InjectionPoint {
+        private final Object owner;
+        private final FieldWriter writer;
+
+        private InjectionPoint(Object owner, FieldWriter writer) {
+            this.owner = owner;
+            this.writer = writer;
+        }
+    }
+}
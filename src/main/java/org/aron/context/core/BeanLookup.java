@@ -0,0 +1,63 @@
+package org.aron.context.core;
+
+import java.lang.annotation.Annotation;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 注册表的只读查询
+ * BeanRegistry 与冻结后的 FrozenRegistry 均实现该接口, 注册与移除只通过 BeanRegistry 完成
+ **/
+interface BeanLookup {
+
+    /**
+     * beanName -> bean 的只读视图
+     */
+    Map<String, Object> getBeans();
+
+    boolean contains(String beanName);
+
+    Object get(String beanName);
+
+    Collection<Object> values();
+
+    /**
+     * 获取beanName对应的id 不存在时分配新的id
+     */
+    int idOf(String beanName);
+
+    /**
+     * 按id获取bean
+     * @return id未分配或bean已被移除时返回null
+     */
+    Object slot(int id);
+
+    boolean isFrozen();
+
+    /**
+     * 获取实例对应的beanName 按引用比较
+     * @param instance 容器中保存的bean或延迟加载bean创建的实例
+     */
+    Set<String> getNames(Object instance);
+
+    /**
+     * 获取类型完全一致的bean
+     */
+    Object getByExactType(Class<?> clazz);
+
+    /**
+     * 获取clazz类或其实现类、子类的bean
+     */
+    Object getByType(Class<?> clazz);
+
+    /**
+     * 获取clazz类或其实现类、子类的所有bean
+     */
+    Collection<Object> getAllByType(Class<?> clazz);
+
+    /**
+     * 获取类上存在annotation注解的所有bean
+     */
+    Collection<Object> getAllByAnnotation(Class<? extends Annotation> annotation);
+}
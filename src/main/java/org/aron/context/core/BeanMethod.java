@@ -0,0 +1,161 @@
+package org.aron.context.core;
+
+import org.aron.context.annotation.component.Autowired;
+import org.aron.context.annotation.component.Bean;
+import org.aron.context.annotation.component.Scope;
+import org.aron.context.error.AnnotationException;
+import org.aron.context.error.BeanInstantiationException;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 配置类中的@Bean工厂方法
+ * 1. 每个配置类只查找一次@Bean方法 生成MethodHandle, 结果缓存在ClassValue中
+ * 2. MethodHandle统一为 (Object, Object[])Object 的形式 调用时无需反射检查与装箱参数数组以外的开销
+ * 3. 方法上的@Scope(prototype) 表示每次获取bean时重新调用该方法
+ **/
+final class BeanMethod {
+
+    private static final BeanMethod[] EMPTY = new BeanMethod[0];
+
+    private static final MethodType INVOKER_TYPE = MethodType.methodType(Object.class, Object.class, Object[].class);
+
+    private static final ClassValue<BeanMethod[]> METHODS = new ClassValue<BeanMethod[]>() {
+        @Override
+        protected BeanMethod[] computeValue(Class<?> type) {
+            List<BeanMethod> methods = new ArrayList<>(0);
+            for (Method method : type.getDeclaredMethods()) {
+                Bean bean = method.getAnnotation(Bean.class);
+                if (bean != null || method.isAnnotationPresent(Autowired.class)) {
+                    methods.add(new BeanMethod(method, bean == null ? null : bean.value()));
+                }
+            }
+            return methods.isEmpty() ? EMPTY : methods.toArray(EMPTY);
+        }
+    };
+
+    private final Method method;
+
+    private final String alias;
+
+    /**
+     * 静态方法为null 使用时抛出AnnotationException
+     */
+    private final MethodHandle invoker;
+
+    private final Class<?>[] parameterTypes;
+
+    private final boolean prototype;
+
+    private final int poolSize;
+
+    private final String scope;
+
+    private BeanMethod(Method method, String alias) {
+        this.method = method;
+        this.alias = alias;
+        this.parameterTypes = method.getParameterTypes();
+        Scope scope = method.getAnnotation(Scope.class);
+        this.scope = scope == null ? Scope.SINGLETON : scope.value();
+        this.prototype = Scope.PROTOTYPE.equals(this.scope);
+        this.poolSize = scope == null ? 0 : scope.poolSize();
+        this.invoker = Modifier.isStatic(method.getModifiers()) ? null : compile(method);
+    }
+
+    /**
+     * 获取配置类的@Bean方法 按getDeclaredMethods的顺序
+     * @param configuration 配置类
+     */
+    static BeanMethod[] of(Class<?> configuration) {
+        return METHODS.get(configuration);
+    }
+
+    /**
+     * 获取单个方法 用于按快照回放
+     * @param method 方法
+     * @param alias 别名
+     */
+    static BeanMethod of(Method method, String alias) {
+        for (BeanMethod beanMethod : of(method.getDeclaringClass())) {
+            if (beanMethod.method.equals(method) && Objects.equals(beanMethod.alias, alias)) {
+                return beanMethod;
+            }
+        }
+        return new BeanMethod(method, alias);
+    }
+
+    Method getMethod() {
+        return this.method;
+    }
+
+    String getAlias() {
+        return this.alias;
+    }
+
+    Class<?> getType() {
+        return this.method.getReturnType();
+    }
+
+    Class<?>[] getParameterTypes() {
+        return this.parameterTypes;
+    }
+
+    boolean isPrototype() {
+        return this.prototype;
+    }
+
+    int getPoolSize() {
+        return this.poolSize;
+    }
+
+    /**
+     * 检查方法能否作为bean工厂
+     */
+    void check() throws AnnotationException {
+        if (this.invoker == null) {
+            throw new AnnotationException("@Bean cannot be configured on a static modified method");
+        }
+        if (!this.prototype && !Scope.SINGLETON.equals(this.scope)) {
+            throw new AnnotationException("@Bean method " + this.method + " does not support scope[" + this.scope + "]");
+        }
+    }
+
+    /**
+     * 调用方法
+     * @param target 配置类的实例
+     * @param args 参数
+     */
+    Object invoke(Object target, Object[] args) throws BeanInstantiationException {
+        Object result;
+        try {
+            result = this.invoker.invokeExact(target, args);
+        } catch (Throwable e) {
+            throw new BeanInstantiationException(e.getMessage(), e);
+        }
+        if (result == null) {
+            throw new BeanInstantiationException("@Bean method " + this.method + " returned null");
+        }
+        return result;
+    }
+
+    private static MethodHandle compile(Method method) {
+        try {
+            MethodHandle handle = MethodHandles.privateLookupIn(method.getDeclaringClass(), MethodHandles.lookup()).unreflect(method);
+            return handle.asSpreader(Object[].class, method.getParameterCount()).asType(INVOKER_TYPE);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("unable to access @Bean method " + method, e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return this.method.getDeclaringClass().getName() + "." + this.method.getName();
+    }
+}
@@ -0,0 +1,116 @@
+package org.aron.context.core;
+
+import lombok.extern.slf4j.Slf4j;
+import org.aron.context.annotation.lifecycle.Reset;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * prototype bean的有界对象池
+ * 1. 按线程id分段 每段为一个有界队列, 不同线程大多落在不同的段上 减少锁竞争
+ * 2. 当前线程所在段为空时返回null 由调用方创建新实例; 段已满时丢弃归还的实例
+ * 3. 归还时先调用@Reset修饰的无参方法重置状态, 重置失败的实例不再放回对象池
+ **/
+@Slf4j
+class BeanPool {
+
+    private final ArrayBlockingQueue<Object>[] stripes;
+
+    private final int mask;
+
+    /**
+     * 类 -> @Reset方法 @Bean方法提供的实例类型可能是返回类型的实现类, 归还时按实例的类型查找
+     */
+    private static final ClassValue<Optional<MethodHandle>> RESETS = new ClassValue<Optional<MethodHandle>>() {
+        @Override
+        protected Optional<MethodHandle> computeValue(Class<?> type) {
+            return Optional.ofNullable(findReset(type));
+        }
+    };
+
+    @SuppressWarnings("unchecked")
+    BeanPool(Class<?> type, int size) {
+        int count = Math.min(Integer.highestOneBit(size), stripeCount());
+        int capacity = (size + count - 1) / count;
+        this.stripes = new ArrayBlockingQueue[count];
+        for (int i = 0; i < count; i++) {
+            this.stripes[i] = new ArrayBlockingQueue<>(capacity);
+        }
+        this.mask = count - 1;
+        // 提前检查@Reset方法的定义
+        RESETS.get(type);
+    }
+
+    /**
+     * 从当前线程所在的段中获取实例
+     * @return 为空时返回null
+     */
+    Object acquire() {
+        return stripe().poll();
+    }
+
+    /**
+     * 重置实例并放回当前线程所在的段
+     */
+    boolean release(Object instance) {
+        MethodHandle reset = RESETS.get(instance.getClass()).orElse(null);
+        if (reset != null) {
+            try {
+                reset.invoke(instance);
+            } catch (Throwable e) {
+                log.warn("reset {} failed, instance discarded", instance.getClass().getName(), e);
+                return false;
+            }
+        }
+        return stripe().offer(instance);
+    }
+
+    private ArrayBlockingQueue<Object> stripe() {
+        long id = Thread.currentThread().getId();
+        return this.stripes[(int) (id ^ (id >>> 16)) & this.mask];
+    }
+
+    /**
+     * 段数: 不小于cpu核数的2的幂
+     */
+    private static int stripeCount() {
+        int cpus = Runtime.getRuntime().availableProcessors();
+        return cpus <= 1 ? 1 : Integer.highestOneBit(cpus - 1) << 1;
+    }
+
+    /**
+     * 查找类及其父类中被@Reset修饰的无参方法
+     */
+    private static MethodHandle findReset(Class<?> type) {
+        for (Class<?> clazz = type; clazz != null && clazz != Object.class; clazz = clazz.getSuperclass()) {
+            for (Method method : clazz.getDeclaredMethods()) {
+                if (!method.isAnnotationPresent(Reset.class)) {
+                    continue;
+                }
+                if (method.getParameterCount() != 0 || Modifier.isStatic(method.getModifiers())) {
+                    throw new IllegalStateException("@Reset method " + method + " must be a no-arg instance method");
+                }
+                try {
+                    return MethodHandles.privateLookupIn(clazz, MethodHandles.lookup()).unreflect(method);
+                } catch (IllegalAccessException e) {
+                    throw new IllegalStateException("unable to access @Reset method " + method, e);
+                }
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        int size = 0;
+        for (ArrayBlockingQueue<Object> stripe : this.stripes) {
+            size += stripe.size();
+        }
+        return "pooled=" + size;
+    }
+}
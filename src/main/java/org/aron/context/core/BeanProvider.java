@@ -0,0 +1,27 @@
+package org.aron.context.core;
+
+import org.aron.context.error.AnnotationException;
+import org.aron.context.error.BeanInstantiationException;
+
+/**
+ * 容器中代替bean实例占位的提供者
+ * 获取bean时由提供者返回实例
+ **/
+interface BeanProvider {
+
+    /**
+     * bean的类型 用于类型索引
+     */
+    Class<?> getType();
+
+    /**
+     * 获取bean实例
+     */
+    Object getObject() throws AnnotationException, BeanInstantiationException;
+
+    /**
+     * 依赖注入时是否延迟获取实例
+     * 为true时 字段类型为接口则注入代理, 调用方法时才获取实例
+     */
+    boolean isDeferred();
+}
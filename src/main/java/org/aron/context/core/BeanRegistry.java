@@ -0,0 +1,441 @@
+package org.aron.context.core;
+
+import org.apache.commons.lang3.ClassUtils;
+
+import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * bean注册表
+ * 1. beanName -> bean
+ * 2. 精确类型 -> bean
+ * 3. 父类/接口(包含自身) -> bean
+ * 4. 类上的注解 -> bean
+ * 5. 实例(按引用比较) -> beanName 按实例移除bean时无需遍历容器, 不受bean重写equals的影响
+ * 6. beanName -> id -> bean id在beanName第一次出现时分配且不再改变, 按id读取只需访问数组
+ * 注册与移除时同步维护类型索引，按类型查找无需遍历整个容器
+ * 并发: 写操作按beanName分段加锁 保证同名bean的注册与索引更新原子完成; 读操作不加锁
+ * 冻结: 初始化完成后可编译为只读的 FrozenRegistry, 之后的查询改为读取 FrozenRegistry
+ **/
+class BeanRegistry implements BeanLookup {
+
+    /**
+     * 缓存类的继承体系(自身 + 所有父类 + 所有接口)
+     */
+    private static final ClassValue<List<Class<?>>> HIERARCHY = new ClassValue<List<Class<?>>>() {
+        @Override
+        protected List<Class<?>> computeValue(Class<?> type) {
+            List<Class<?>> hierarchy = new ArrayList<>();
+            hierarchy.add(type);
+            hierarchy.addAll(ClassUtils.getAllSuperclasses(type));
+            hierarchy.addAll(ClassUtils.getAllInterfaces(type));
+            return Collections.unmodifiableList(hierarchy);
+        }
+    };
+
+    /**
+     * 写锁分段数 2的幂
+     */
+    private static final int STRIPES = 64;
+
+    /**
+     * id分段大小 2的幂 分段创建后不再复制, 扩容时写入的bean不会丢失
+     */
+    private static final int CHUNK_BITS = 8;
+
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+
+    private static final VarHandle SLOT = MethodHandles.arrayElementVarHandle(Object[].class);
+
+    /**
+     * 类名 -> 实例
+     */
+    private final Map<String, Object> beans = new ConcurrentHashMap<>();
+
+    /**
+     * 精确类型 -> (beanName -> bean)
+     */
+    private final Map<Class<?>, Map<String, Object>> exactIndex = new ConcurrentHashMap<>();
+
+    /**
+     * 父类/接口 -> (beanName -> bean)
+     */
+    private final Map<Class<?>, Map<String, Object>> typeIndex = new ConcurrentHashMap<>();
+
+    /**
+     * 注解 -> (beanName -> bean)
+     */
+    private final Map<Class<?>, Map<String, Object>> annotationIndex = new ConcurrentHashMap<>();
+
+    /**
+     * 实例 -> beanName 延迟加载的bean同时记录占位对象与创建后的实例
+     */
+    private final Map<Identity, Set<String>> nameIndex = new ConcurrentHashMap<>();
+
+    /**
+     * beanName -> id
+     */
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+
+    /**
+     * id -> bean 按id分段 bean被移除后为null
+     */
+    private volatile Object[][] slots = new Object[1][CHUNK_SIZE];
+
+    private final Object[] locks = new Object[STRIPES];
+
+    BeanRegistry() {
+        for (int i = 0; i < STRIPES; i++) {
+            this.locks[i] = new Object();
+        }
+    }
+
+    static List<Class<?>> hierarchyOf(Class<?> clazz) {
+        return HIERARCHY.get(clazz);
+    }
+
+    /**
+     * bean的类型 占位对象取其提供的bean类型
+     */
+    static Class<?> typeOf(Object bean) {
+        return bean instanceof BeanProvider ? ((BeanProvider) bean).getType() : bean.getClass();
+    }
+
+    @Override
+    public Map<String, Object> getBeans() {
+        return Collections.unmodifiableMap(this.beans);
+    }
+
+    @Override
+    public boolean contains(String beanName) {
+        return this.beans.containsKey(beanName);
+    }
+
+    @Override
+    public Object get(String beanName) {
+        return this.beans.get(beanName);
+    }
+
+    @Override
+    public Collection<Object> values() {
+        return this.beans.values();
+    }
+
+    /**
+     * 获取beanName对应的id 不存在时分配新的id
+     */
+    @Override
+    public int idOf(String beanName) {
+        Integer id = this.ids.get(beanName);
+        if (id != null) {
+            return id;
+        }
+        synchronized (this.ids) {
+            id = this.ids.get(beanName);
+            if (id == null) {
+                id = this.ids.size();
+                Object[][] slots = this.slots;
+                if (id >>> CHUNK_BITS >= slots.length) {
+                    // 只复制分段的引用
+                    slots = Arrays.copyOf(slots, slots.length * 2);
+                    for (int i = id >>> CHUNK_BITS; i < slots.length; i++) {
+                        slots[i] = new Object[CHUNK_SIZE];
+                    }
+                    this.slots = slots;
+                }
+                this.ids.put(beanName, id);
+            }
+            return id;
+        }
+    }
+
+    /**
+     * 按id获取bean
+     * @return id未分配或bean已被移除时返回null
+     */
+    @Override
+    public Object slot(int id) {
+        Object[][] slots = this.slots;
+        int chunk = id >>> CHUNK_BITS;
+        return id < 0 || chunk >= slots.length ? null : SLOT.getAcquire(slots[chunk], id & (CHUNK_SIZE - 1));
+    }
+
+    /**
+     * 已分配的id数量
+     */
+    int slotCount() {
+        return this.ids.size();
+    }
+
+    @Override
+    public boolean isFrozen() {
+        return false;
+    }
+
+    /**
+     * 编译为只读注册表 调用期间不能有并发的注册与移除
+     */
+    FrozenRegistry freeze() {
+        return new FrozenRegistry(this, this.beans, this.exactIndex, this.typeIndex, this.annotationIndex);
+    }
+
+    /**
+     * 注册bean 同名bean将被覆盖
+     * @param beanName bean名称
+     * @param bean 实例对象
+     * @return 被覆盖的实例对象
+     */
+    Object put(String beanName, Object bean) {
+        synchronized (lockFor(beanName)) {
+            Object old = this.beans.put(beanName, bean);
+            if (old != null) {
+                unindex(beanName, old);
+            }
+            index(beanName, bean);
+            store(beanName, bean);
+            return old;
+        }
+    }
+
+    /**
+     * 同名bean不存在时注册bean
+     * @param beanName bean名称
+     * @param bean 实例对象
+     * @return 已存在的实例对象 注册成功时返回null
+     */
+    Object putIfAbsent(String beanName, Object bean) {
+        synchronized (lockFor(beanName)) {
+            Object old = this.beans.putIfAbsent(beanName, bean);
+            if (old == null) {
+                index(beanName, bean);
+                store(beanName, bean);
+            }
+            return old;
+        }
+    }
+
+    /**
+     * 移除bean
+     * @param beanName bean名称
+     * @return 被移除的实例对象
+     */
+    Object remove(String beanName) {
+        synchronized (lockFor(beanName)) {
+            Object old = this.beans.remove(beanName);
+            if (old != null) {
+                unindex(beanName, old);
+                store(beanName, null);
+            }
+            return old;
+        }
+    }
+
+    /**
+     * 移除实例对应的bean
+     * @param beanName bean名称
+     * @param instance 容器中保存的bean或延迟加载bean创建的实例
+     * @return 被移除的bean beanName对应的不是该实例时返回null
+     */
+    Object remove(String beanName, Object instance) {
+        synchronized (lockFor(beanName)) {
+            Object old = this.beans.get(beanName);
+            if (old == null || (old != instance && instanceOf(old) != instance)) {
+                // beanName已被其他bean覆盖 丢弃过期的反向索引
+                unname(instance, beanName);
+                return null;
+            }
+            this.beans.remove(beanName);
+            unindex(beanName, old);
+            store(beanName, null);
+            return old;
+        }
+    }
+
+    /**
+     * 获取实例对应的beanName 按引用比较
+     * @param instance 容器中保存的bean或延迟加载bean创建的实例
+     */
+    @Override
+    public Set<String> getNames(Object instance) {
+        Set<String> names = this.nameIndex.get(new Identity(instance));
+        return names == null ? Collections.emptySet() : new HashSet<>(names);
+    }
+
+    /**
+     * 延迟加载的bean创建实例后 记录实例对应的beanName
+     * @param provider 占位对象
+     * @param instance 创建的实例
+     */
+    void link(BeanProvider provider, Object instance) {
+        for (String beanName : getNames(provider)) {
+            synchronized (lockFor(beanName)) {
+                if (this.beans.get(beanName) == provider) {
+                    name(instance, beanName);
+                }
+            }
+        }
+    }
+
+    /**
+     * 获取类型完全一致的bean
+     */
+    @Override
+    public Object getByExactType(Class<?> clazz) {
+        return first(this.exactIndex.get(clazz));
+    }
+
+    /**
+     * 获取clazz类或其实现类、子类的bean
+     */
+    @Override
+    public Object getByType(Class<?> clazz) {
+        return first(this.typeIndex.get(clazz));
+    }
+
+    /**
+     * 获取clazz类或其实现类、子类的所有bean
+     */
+    @Override
+    public Collection<Object> getAllByType(Class<?> clazz) {
+        Map<String, Object> map = this.typeIndex.get(clazz);
+        if (map == null) {
+            return Collections.emptyList();
+        }
+        return Collections.unmodifiableCollection(map.values());
+    }
+
+    /**
+     * 获取类上存在annotation注解的所有bean
+     * @return 弱一致的实时视图
+     */
+    @Override
+    public Collection<Object> getAllByAnnotation(Class<? extends Annotation> annotation) {
+        Map<String, Object> map = this.annotationIndex.get(annotation);
+        if (map == null) {
+            return Collections.emptyList();
+        }
+        return Collections.unmodifiableCollection(map.values());
+    }
+
+    private Object lockFor(String beanName) {
+        int hash = beanName.hashCode();
+        return this.locks[(hash ^ (hash >>> 16)) & (STRIPES - 1)];
+    }
+
+    /**
+     * 在beanName的写锁内更新id对应的bean
+     */
+    private void store(String beanName, Object bean) {
+        int id = idOf(beanName);
+        SLOT.setRelease(this.slots[id >>> CHUNK_BITS], id & (CHUNK_SIZE - 1), bean);
+    }
+
+    private void index(String beanName, Object bean) {
+        Class<?> clazz = typeOf(bean);
+        put(this.exactIndex, clazz, beanName, bean);
+        for (Class<?> type : hierarchyOf(clazz)) {
+            put(this.typeIndex, type, beanName, bean);
+        }
+        for (Class<?> annotation : AnnotationIndex.annotationsOf(clazz)) {
+            put(this.annotationIndex, annotation, beanName, bean);
+        }
+        name(bean, beanName);
+        Object instance = instanceOf(bean);
+        if (instance != bean) {
+            name(instance, beanName);
+        }
+    }
+
+    private void unindex(String beanName, Object bean) {
+        Class<?> clazz = typeOf(bean);
+        remove(this.exactIndex, clazz, beanName);
+        for (Class<?> type : hierarchyOf(clazz)) {
+            remove(this.typeIndex, type, beanName);
+        }
+        for (Class<?> annotation : AnnotationIndex.annotationsOf(clazz)) {
+            remove(this.annotationIndex, annotation, beanName);
+        }
+        unname(bean, beanName);
+        Object instance = instanceOf(bean);
+        if (instance != bean) {
+            unname(instance, beanName);
+        }
+    }
+
+    private void name(Object instance, String beanName) {
+        if (instance != null) {
+            this.nameIndex.computeIfAbsent(new Identity(instance), k -> ConcurrentHashMap.newKeySet()).add(beanName);
+        }
+    }
+
+    private void unname(Object instance, String beanName) {
+        if (instance != null) {
+            this.nameIndex.computeIfPresent(new Identity(instance), (k, names) -> {
+                names.remove(beanName);
+                return names.isEmpty() ? null : names;
+            });
+        }
+    }
+
+    /**
+     * 延迟加载的bean已创建的实例 其他bean为自身
+     */
+    private static Object instanceOf(Object bean) {
+        return bean instanceof LazyBean ? ((LazyBean) bean).peek() : bean;
+    }
+
+    private static void put(Map<Class<?>, Map<String, Object>> index, Class<?> clazz, String beanName, Object bean) {
+        index.compute(clazz, (k, map) -> {
+            map = map == null ? new ConcurrentHashMap<>() : map;
+            map.put(beanName, bean);
+            return map;
+        });
+    }
+
+    private static void remove(Map<Class<?>, Map<String, Object>> index, Class<?> clazz, String beanName) {
+        index.computeIfPresent(clazz, (k, map) -> {
+            map.remove(beanName);
+            return map.isEmpty() ? null : map;
+        });
+    }
+
+    private static Object first(Map<String, Object> map) {
+        if (map == null) {
+            return null;
+        }
+        Iterator<Object> iterator = map.values().iterator();
+        return iterator.hasNext() ? iterator.next() : null;
+    }
+
+    /**
+     * 按引用比较的key
+     */
+    private static final class Identity {
+        private final Object instance;
+
+        private Identity(Object instance) {
+            this.instance = instance;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof Identity && ((Identity) obj).instance == this.instance;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(this.instance);
+        }
+    }
+}
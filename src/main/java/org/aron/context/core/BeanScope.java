@@ -0,0 +1,179 @@
+package org.aron.context.core;
+
+import lombok.extern.slf4j.Slf4j;
+import org.aron.context.error.AnnotationException;
+import org.aron.context.error.BeanInstantiationException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * request作用域 一次请求或一个任务内共享的bean
+ * 1. 所有作用域共用一个ThreadLocal 只在 open()/run()/call() 期间绑定, 结束时在finally中恢复, 不会残留在线程上
+ * 2. 同一个作用域可以通过 run()/call() 绑定到其他线程(例如线程池、虚拟线程)上执行子任务
+ * 3. request作用域的bean在作用域内第一次使用时创建, 按下标保存在数组中; 下标被其他bean复用时 原来的实例不再返回
+ * 4. close() 时批量释放 按创建的逆序调用@PreDestroy方法, 没有@PreDestroy方法且实现了AutoCloseable的实例调用close()
+ * 用法:
+ * try (BeanScope scope = BeanScope.open()) {
+ *     ...
+ * }
+ **/
+@Slf4j
+public final class BeanScope implements AutoCloseable {
+
+    private static final ThreadLocal<BeanScope> CURRENT = new ThreadLocal<>();
+
+    private static final Slot[] EMPTY = new Slot[0];
+
+    /**
+     * ScopedBean下标 -> 实例 创建实例时复制
+     */
+    private volatile Slot[] slots = EMPTY;
+
+    /**
+     * 按创建顺序记录的实例
+     */
+    private final List<Object> created = new ArrayList<>();
+
+    private boolean closed;
+
+    /**
+     * open()时线程上原来绑定的作用域
+     */
+    private BeanScope previous;
+
+    private Thread owner;
+
+    public BeanScope() {
+    }
+
+    /**
+     * 创建作用域并绑定到当前线程 需在同一线程上调用close()
+     */
+    public static BeanScope open() {
+        BeanScope scope = new BeanScope();
+        scope.owner = Thread.currentThread();
+        scope.previous = CURRENT.get();
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    /**
+     * 当前线程绑定的作用域
+     * @return 未绑定时返回null
+     */
+    public static BeanScope current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * 在当前线程上绑定该作用域并执行任务 结束后恢复原来的绑定
+     */
+    public void run(Runnable task) {
+        BeanScope previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            task.run();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    /**
+     * 在当前线程上绑定该作用域并执行任务 结束后恢复原来的绑定
+     */
+    public <V> V call(Callable<V> task) throws Exception {
+        BeanScope previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            return task.call();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    /**
+     * 获取作用域内的实例 不存在时创建
+     */
+    Object get(ScopedBean bean) throws AnnotationException, BeanInstantiationException {
+        int index = bean.getIndex();
+        Slot[] slots = this.slots;
+        Slot slot = index < slots.length ? slots[index] : null;
+        if (slot != null && slot.bean == bean) {
+            return slot.instance;
+        }
+        synchronized (this) {
+            if (this.closed) {
+                throw new BeanInstantiationException("bean scope is closed");
+            }
+            slots = this.slots;
+            slot = index < slots.length ? slots[index] : null;
+            if (slot == null || slot.bean != bean) {
+                slot = new Slot(bean, bean.create());
+                slots = Arrays.copyOf(this.slots, Math.max(this.slots.length, index + 1));
+                slots[index] = slot;
+                this.slots = slots;
+                this.created.add(slot.instance);
+            }
+            return slot.instance;
+        }
+    }
+
+    /**
+     * 结束作用域 解除open()时的绑定并释放所有实例
+     */
+    @Override
+    public void close() {
+        if (this.owner == Thread.currentThread() && CURRENT.get() == this) {
+            restore(this.previous);
+            this.owner = null;
+            this.previous = null;
+        }
+        List<Object> released;
+        synchronized (this) {
+            if (this.closed) {
+                return;
+            }
+            this.closed = true;
+            this.slots = EMPTY;
+            released = new ArrayList<>(this.created);
+            this.created.clear();
+        }
+        for (int i = released.size() - 1; i >= 0; i--) {
+            Object instance = released.get(i);
+            LifecyclePlan plan = LifecyclePlan.of(instance.getClass());
+            if (plan.hasPreDestroy()) {
+                plan.preDestroy(instance);
+            } else if (instance instanceof AutoCloseable) {
+                try {
+                    ((AutoCloseable) instance).close();
+                } catch (Exception e) {
+                    log.warn("unable to close request-scoped bean {}", instance.getClass().getName(), e);
+                }
+            }
+        }
+    }
+
+    private static void restore(BeanScope previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+    /**
+     * 下标上保存的实例及创建它的bean
+     */
+    private static final class Slot {
+        private final ScopedBean bean;
+        private final Object instance;
+
+        private Slot(ScopedBean bean, Object instance) {
+            this.bean = bean;
+            this.instance = instance;
+        }
+    }
+}
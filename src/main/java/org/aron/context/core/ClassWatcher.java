@@ -0,0 +1,331 @@
+package org.aron.context.core;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.aron.context.core.InjectionPlan.FieldWriter;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 监听class目录 热替换修改过的类
+ * 1. 通过WatchService监听扫包的根目录及其子目录 新建的子目录自动加入监听
+ * 2. 文件变化后等待一段静默期再处理 避免编译器尚未写完class文件
+ * 3. 以包为单位重新加载: 变化的类所在包下的所有类由新的子类加载器一起加载, 其他类委托给父加载器或之前热替换的类
+ *    不同类加载器加载的同名包属于不同的运行时包, 只替换部分类时它们之间访问包级私有的成员会抛出IllegalAccessError
+ * 4. @Autowired字段类型是被替换类本身的bean无法重新注入 它们所在的包一并重新加载
+ * 5. 只替换受影响的bean 并只重新注入依赖它们的bean, 不重新实例化整个容器
+ * 6. 加载失败时记录日志 保留原来的bean
+ * 限制: 未重新加载的包中的类仍然引用被替换的类的旧版本; 仅用于开发环境 close()停止监听
+ **/
+@Slf4j
+public final class ClassWatcher implements AutoCloseable {
+
+    /**
+     * 默认的静默期
+     */
+    public static final long QUIET_MILLIS = 200;
+
+    private static final String SUFFIX = ".class";
+
+    private static final AtomicLong THREAD_ID = new AtomicLong();
+
+    private final IocManager iocManager;
+
+    /**
+     * class根路径 用于将文件路径转为类名
+     */
+    private final Path classPath;
+
+    private final ClassLoader parent;
+
+    private final WatchService watchService;
+
+    private final Map<WatchKey, Path> directories = new HashMap<>();
+
+    /**
+     * 类名 -> 最近一次热替换加载的类
+     */
+    private final Map<String, Class<?>> reloaded = new ConcurrentHashMap<>();
+
+    private final Thread thread;
+
+    /**
+     * 文件变化后的静默期
+     */
+    private final long quietMillis;
+
+    /**
+     * 已完成的热替换次数
+     */
+    @Getter
+    private volatile int reloads;
+
+    private ClassWatcher(IocManager iocManager, Path classPath, Path root, ClassLoader parent, long quietMillis) throws IOException {
+        this.iocManager = iocManager;
+        this.classPath = classPath;
+        this.parent = parent;
+        this.quietMillis = quietMillis;
+        this.watchService = FileSystems.getDefault().newWatchService();
+        register(root);
+        this.thread = new Thread(this::run, "fly-class-watcher-" + THREAD_ID.incrementAndGet());
+        this.thread.setDaemon(true);
+    }
+
+    /**
+     * 开始监听
+     * @param iocManager 容器
+     * @param classPath class根路径
+     * @param root 监听的目录
+     * @param parent 未修改的类所在的类加载器
+     * @param quietMillis 文件变化后的静默期
+     */
+    public static ClassWatcher start(IocManager iocManager, Path classPath, Path root, ClassLoader parent, long quietMillis) throws IOException {
+        ClassWatcher watcher = new ClassWatcher(iocManager, classPath, root, parent, quietMillis);
+        watcher.thread.start();
+        log.debug("watching {} for class changes", root);
+        return watcher;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.thread.interrupt();
+        this.watchService.close();
+    }
+
+    private void run() {
+        Set<Path> changed = new HashSet<>();
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                WatchKey key = changed.isEmpty() ? this.watchService.take()
+                        : this.watchService.poll(this.quietMillis, TimeUnit.MILLISECONDS);
+                if (key == null) {
+                    // 静默期内没有新的变化
+                    reload(changed);
+                    changed.clear();
+                    continue;
+                }
+                Path directory = this.directories.get(key);
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (directory == null || event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        continue;
+                    }
+                    Path path = directory.resolve((Path) event.context());
+                    if (Files.isDirectory(path)) {
+                        if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE) {
+                            register(path);
+                            collect(path, changed);
+                        }
+                    } else if (path.toString().endsWith(SUFFIX)) {
+                        changed.add(path);
+                    }
+                }
+                if (!key.reset()) {
+                    this.directories.remove(key);
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            log.debug("class watcher stopped");
+        } catch (IOException e) {
+            log.warn("class watcher stopped", e);
+        }
+    }
+
+    /**
+     * 重新加载变化的类 失败时保留原来的bean
+     * @param changed 变化的class文件
+     */
+    private void reload(Set<Path> changed) {
+        try {
+            Map<String, Path> files = filesOf(changed);
+            if (files.isEmpty()) {
+                return;
+            }
+            ReloadingClassLoader loader = new ReloadingClassLoader(files, this.reloaded, this.parent);
+            List<Class<?>> classes = new ArrayList<>(files.size());
+            for (String className : files.keySet()) {
+                classes.add(Class.forName(className, false, loader));
+            }
+            List<String> names = this.iocManager.reload(classes);
+            for (Class<?> clazz : classes) {
+                this.reloaded.put(clazz.getName(), clazz);
+            }
+            this.reloads++;
+            log.info("reloaded {} classes, replaced beans: {}", classes.size(), names);
+        } catch (Exception | LinkageError e) {
+            // 包括类加载器之间访问受限导致的IllegalAccessError 原来的bean仍然有效
+            log.warn("unable to reload classes {}, the old beans are kept", changed, e);
+        }
+    }
+
+    /**
+     * 需要重新加载的class文件
+     * 1. 变化的类所在包下的所有类
+     * 2. 有@Autowired字段的类型属于需要重新加载的类的bean 其所在包下的所有类
+     * @return 类名 -> class文件
+     */
+    private Map<String, Path> filesOf(Set<Path> changed) throws IOException {
+        Set<String> packages = new HashSet<>();
+        for (Path path : changed) {
+            String className = classNameOf(path);
+            if (className != null && Files.exists(path)) {
+                packages.add(packageOf(className));
+            }
+        }
+        Map<String, Class<?>> current = new HashMap<>();
+        for (Class<?> clazz : this.iocManager.getClassSet()) {
+            current.put(clazz.getName(), clazz);
+        }
+        current.putAll(this.reloaded);
+        boolean added = !packages.isEmpty();
+        while (added) {
+            added = false;
+            for (Class<?> clazz : current.values()) {
+                String packageName = packageOf(clazz.getName());
+                if (packages.contains(packageName) || !Files.exists(fileOf(clazz.getName()))) {
+                    continue;
+                }
+                for (FieldWriter writer : InjectionPlan.of(clazz).getWriters()) {
+                    if (packages.contains(packageOf(writer.getType().getName()))) {
+                        packages.add(packageName);
+                        added = true;
+                        break;
+                    }
+                }
+            }
+        }
+        Map<String, Path> files = new LinkedHashMap<>();
+        for (String packageName : packages) {
+            Path directory = packageName.isEmpty() ? this.classPath : this.classPath.resolve(packageName.replace('.', '/'));
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+                for (Path file : stream) {
+                    files.put(classNameOf(file), file);
+                }
+            }
+        }
+        return files;
+    }
+
+    private Path fileOf(String className) {
+        return this.classPath.resolve(className.replace('.', '/') + SUFFIX);
+    }
+
+    /**
+     * @return 不在class根路径下时返回null
+     */
+    private String classNameOf(Path path) {
+        if (!path.startsWith(this.classPath)) {
+            return null;
+        }
+        String name = this.classPath.relativize(path).toString();
+        return name.substring(0, name.length() - SUFFIX.length()).replace(path.getFileSystem().getSeparator(), ".");
+    }
+
+    private static String packageOf(String className) {
+        int index = className.lastIndexOf('.');
+        return index < 0 ? "" : className.substring(0, index);
+    }
+
+    /**
+     * 监听目录及其所有子目录
+     */
+    private void register(Path root) throws IOException {
+        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                WatchKey key = dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+                directories.put(key, dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    /**
+     * 新建目录中已经存在的class文件
+     */
+    private static void collect(Path directory, Set<Path> changed) throws IOException {
+        Files.walkFileTree(directory, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (file.toString().endsWith(SUFFIX)) {
+                    changed.add(file);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    /**
+     * 热替换使用的类加载器
+     * 需要重新加载的类从class文件定义; 之前热替换过的类使用最近一次加载的版本; 其余委托给父加载器
+     */
+    private static final class ReloadingClassLoader extends ClassLoader {
+
+        static {
+            registerAsParallelCapable();
+        }
+
+        private final Map<String, Path> files;
+
+        private final Map<String, Class<?>> reloaded;
+
+        private ReloadingClassLoader(Map<String, Path> files, Map<String, Class<?>> reloaded, ClassLoader parent) {
+            super(parent);
+            this.files = files;
+            this.reloaded = reloaded;
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            if (!this.files.containsKey(name)) {
+                Class<?> clazz = this.reloaded.get(name);
+                return clazz != null ? clazz : super.loadClass(name, resolve);
+            }
+            synchronized (getClassLoadingLock(name)) {
+                Class<?> clazz = findLoadedClass(name);
+                if (clazz == null) {
+                    clazz = findClass(name);
+                }
+                if (resolve) {
+                    resolveClass(clazz);
+                }
+                return clazz;
+            }
+        }
+
+        @Override
+        protected Class<?> findClass(String name) throws ClassNotFoundException {
+            Path file = this.files.get(name);
+            if (file == null) {
+                throw new ClassNotFoundException(name);
+            }
+            try {
+                byte[] bytes = Files.readAllBytes(file);
+                return defineClass(name, bytes, 0, bytes.length);
+            } catch (IOException e) {
+                throw new ClassNotFoundException(name, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,373 @@
+package org.aron.context.core;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 初始化完成后的容器快照 下次启动时直接回放, 跳过扫包、注解判断、beanName推导与依赖分析
+ * 1. 记录: 扫描的类名、组件类名、类上的注解、bean的实例化顺序与依赖注入关系、@Bean方法
+ * 2. 记录class文件、所在目录与jar包的修改时间和大小, 以及扫包目录树下所有目录与组件索引文件 任意一项变化时快照失效
+ *    新增的包目录会改变其父目录的修改时间 即使父目录下没有class文件
+ * 3. 扫包参数(appClass、scanPackages、filterPackages)不一致时快照失效
+ * 文件格式: 魔数 版本 参数 字符串表, 其余内容均为字符串表的下标
+ **/
+@Slf4j
+public class ContainerSnapshot {
+
+    private static final int MAGIC = 0x464C5953;
+
+    private static final int VERSION = 1;
+
+    private final String key;
+
+    private final Map<String, Long> stamps;
+
+    private final List<String> classNames;
+
+    private final Set<String> componentNames;
+
+    private final Map<String, Set<String>> classAnnotations;
+
+    private final List<BeanEntry> beans;
+
+    private final List<MethodEntry> methods;
+
+    private ContainerSnapshot(String key, Map<String, Long> stamps, List<String> classNames, Set<String> componentNames,
+                              Map<String, Set<String>> classAnnotations, List<BeanEntry> beans, List<MethodEntry> methods) {
+        this.key = key;
+        this.stamps = stamps;
+        this.classNames = classNames;
+        this.componentNames = componentNames;
+        this.classAnnotations = classAnnotations;
+        this.beans = beans;
+        this.methods = methods;
+    }
+
+    /**
+     * 生成快照
+     * @param key 扫包参数
+     * @param sources 扫包的目录与索引文件 目录记录其下所有子目录, 文件不存在时也记录
+     * @param classLoader 用于定位class文件
+     */
+    static ContainerSnapshot capture(String key, Collection<String> classNames, Collection<String> componentNames,
+                                     Map<String, Set<String>> classAnnotations, List<BeanEntry> beans,
+                                     List<MethodEntry> methods, Collection<Path> sources, ClassLoader classLoader) throws IOException {
+        Map<String, Long> stamps = new LinkedHashMap<>();
+        for (Path source : sources) {
+            if (Files.isDirectory(source)) {
+                addDirectories(stamps, source);
+            } else {
+                stamps.put(source.toString(), stamp(source));
+            }
+        }
+        for (String className : classNames) {
+            addSource(stamps, classLoader.getResource(className.replace('.', '/') + ".class"));
+        }
+        return new ContainerSnapshot(key, stamps, new ArrayList<>(classNames), new LinkedHashSet<>(componentNames),
+                classAnnotations == null ? Collections.emptyMap() : new HashMap<>(classAnnotations), beans, methods);
+    }
+
+    /**
+     * 读取快照
+     * @param file 快照文件
+     * @param key 当前的扫包参数
+     * @return 文件不存在、无法解析、参数不一致或class文件已变化时返回null
+     */
+    static ContainerSnapshot read(Path file, String key) {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION || !key.equals(in.readUTF())) {
+                log.debug("snapshot {} was written for another configuration", file);
+                return null;
+            }
+            String[] strings = new String[in.readInt()];
+            for (int i = 0; i < strings.length; i++) {
+                strings[i] = in.readUTF();
+            }
+            Map<String, Long> stamps = new LinkedHashMap<>();
+            for (int i = in.readInt(); i > 0; i--) {
+                String path = strings[in.readInt()];
+                long stamp = in.readLong();
+                if (stamp(Paths.get(path)) != stamp) {
+                    log.debug("snapshot {} is stale: {} changed", file, path);
+                    return null;
+                }
+                stamps.put(path, stamp);
+            }
+            List<String> classNames = readStrings(in, strings, new ArrayList<>());
+            Set<String> componentNames = readStrings(in, strings, new LinkedHashSet<>());
+            Map<String, Set<String>> classAnnotations = new HashMap<>();
+            for (int i = in.readInt(); i > 0; i--) {
+                classAnnotations.put(strings[in.readInt()], readStrings(in, strings, new LinkedHashSet<>()));
+            }
+            List<BeanEntry> beans = new ArrayList<>();
+            for (int i = in.readInt(); i > 0; i--) {
+                BeanEntry entry = new BeanEntry(strings[in.readInt()], strings[in.readInt()], in.readByte(), in.readInt(), in.readInt());
+                int count = in.readInt();
+                if (count >= 0) {
+                    entry.dependencies = new String[count];
+                    for (int j = 0; j < count; j++) {
+                        entry.dependencies[j] = string(strings, in.readInt());
+                    }
+                }
+                beans.add(entry);
+            }
+            List<MethodEntry> methods = new ArrayList<>();
+            for (int i = in.readInt(); i > 0; i--) {
+                String className = strings[in.readInt()];
+                String methodName = strings[in.readInt()];
+                String[] parameterTypes = new String[in.readInt()];
+                for (int j = 0; j < parameterTypes.length; j++) {
+                    parameterTypes[j] = strings[in.readInt()];
+                }
+                methods.add(new MethodEntry(className, methodName, parameterTypes, string(strings, in.readInt())));
+            }
+            return new ContainerSnapshot(key, stamps, classNames, componentNames, classAnnotations, beans, methods);
+        } catch (IOException | RuntimeException e) {
+            log.warn("unable to read snapshot {}, fall back to package scanning", file, e);
+            return null;
+        }
+    }
+
+    /**
+     * 写入快照 先写临时文件再替换, 避免并发启动时读取到不完整的文件
+     */
+    void write(Path file) throws IOException {
+        Map<String, Integer> table = new LinkedHashMap<>();
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path temp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeUTF(this.key);
+                byte[] body = body(table);
+                out.writeInt(table.size());
+                for (String string : table.keySet()) {
+                    out.writeUTF(string);
+                }
+                out.write(body);
+            }
+            try {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    public List<String> getClassNames() {
+        return classNames;
+    }
+
+    public Set<String> getComponentNames() {
+        return componentNames;
+    }
+
+    public Map<String, Set<String>> getClassAnnotations() {
+        return classAnnotations;
+    }
+
+    List<BeanEntry> getBeans() {
+        return beans;
+    }
+
+    List<MethodEntry> getMethods() {
+        return methods;
+    }
+
+    private byte[] body(Map<String, Integer> table) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(4096);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(this.stamps.size());
+            for (Map.Entry<String, Long> entry : this.stamps.entrySet()) {
+                out.writeInt(index(table, entry.getKey()));
+                out.writeLong(entry.getValue());
+            }
+            writeStrings(out, table, this.classNames);
+            writeStrings(out, table, this.componentNames);
+            out.writeInt(this.classAnnotations.size());
+            for (Map.Entry<String, Set<String>> entry : this.classAnnotations.entrySet()) {
+                out.writeInt(index(table, entry.getKey()));
+                writeStrings(out, table, entry.getValue());
+            }
+            out.writeInt(this.beans.size());
+            for (BeanEntry entry : this.beans) {
+                out.writeInt(index(table, entry.className));
+                out.writeInt(index(table, entry.beanName));
+                out.writeByte(entry.kind);
+                out.writeInt(entry.poolSize);
+                out.writeInt(entry.level);
+                out.writeInt(entry.dependencies == null ? -1 : entry.dependencies.length);
+                if (entry.dependencies != null) {
+                    for (String dependency : entry.dependencies) {
+                        out.writeInt(index(table, dependency));
+                    }
+                }
+            }
+            out.writeInt(this.methods.size());
+            for (MethodEntry entry : this.methods) {
+                out.writeInt(index(table, entry.className));
+                out.writeInt(index(table, entry.methodName));
+                out.writeInt(entry.parameterTypes.length);
+                for (String parameterType : entry.parameterTypes) {
+                    out.writeInt(index(table, parameterType));
+                }
+                out.writeInt(index(table, entry.alias));
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * 记录class文件的来源: 目录下的class文件同时记录所在目录(新增、删除文件时目录的修改时间会变化); jar包中的class记录jar包
+     */
+    private static void addSource(Map<String, Long> stamps, URL url) throws IOException {
+        if (url == null) {
+            return;
+        }
+        try {
+            if ("file".equals(url.getProtocol())) {
+                Path path = Paths.get(url.toURI());
+                stamps.put(path.toString(), stamp(path));
+                if (path.getParent() != null) {
+                    stamps.putIfAbsent(path.getParent().toString(), stamp(path.getParent()));
+                }
+            } else if ("jar".equals(url.getProtocol())) {
+                String spec = url.getPath();
+                int separator = spec.indexOf("!/");
+                Path jar = Paths.get(new URL(separator < 0 ? spec : spec.substring(0, separator)).toURI());
+                stamps.putIfAbsent(jar.toString(), stamp(jar));
+            }
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            throw new IOException("unsupported class location: " + url, e);
+        }
+    }
+
+    /**
+     * 记录目录树下所有目录 新增或删除子目录、文件时对应目录的修改时间会变化
+     */
+    private static void addDirectories(Map<String, Long> stamps, Path root) throws IOException {
+        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                stamps.putIfAbsent(dir.toString(), attrs.lastModifiedTime().toMillis() * 31 + attrs.size());
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    /**
+     * 文件的修改时间与大小 文件不存在时为-1
+     */
+    private static long stamp(Path path) throws IOException {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            return attributes.lastModifiedTime().toMillis() * 31 + attributes.size();
+        } catch (NoSuchFileException e) {
+            return -1;
+        }
+    }
+
+    private static int index(Map<String, Integer> table, String value) {
+        return value == null ? -1 : table.computeIfAbsent(value, k -> table.size());
+    }
+
+    private static String string(String[] strings, int index) {
+        return index < 0 ? null : strings[index];
+    }
+
+    private static void writeStrings(DataOutputStream out, Map<String, Integer> table, Collection<String> values) throws IOException {
+        out.writeInt(values.size());
+        for (String value : values) {
+            out.writeInt(index(table, value));
+        }
+    }
+
+    private static <C extends Collection<String>> C readStrings(DataInputStream in, String[] strings, C values) throws IOException {
+        for (int i = in.readInt(); i > 0; i--) {
+            values.add(strings[in.readInt()]);
+        }
+        return values;
+    }
+
+    /**
+     * 需要实例化的bean
+     * 延迟加载与prototype、request作用域的bean level为-1, 其余按依赖分层的顺序排列
+     */
+    static final class BeanEntry {
+        static final byte SINGLETON = 0;
+        static final byte LAZY = 1;
+        static final byte PROTOTYPE = 2;
+        static final byte REQUEST = 3;
+
+        final String className;
+        final String beanName;
+        final byte kind;
+        final int poolSize;
+        final int level;
+
+        /**
+         * 与InjectionPlan中的字段一一对应的依赖beanName 为null时按类型注入
+         */
+        String[] dependencies;
+
+        BeanEntry(String className, String beanName, byte kind, int poolSize, int level) {
+            this.className = className;
+            this.beanName = beanName;
+            this.kind = kind;
+            this.poolSize = poolSize;
+            this.level = level;
+        }
+    }
+
+    /**
+     * @Configuration类中的@Bean方法
+     */
+    static final class MethodEntry {
+        final String className;
+        final String methodName;
+        final String[] parameterTypes;
+        final String alias;
+
+        MethodEntry(String className, String methodName, String[] parameterTypes, String alias) {
+            this.className = className;
+            this.methodName = methodName;
+            this.parameterTypes = parameterTypes;
+            this.alias = alias;
+        }
+    }
+}
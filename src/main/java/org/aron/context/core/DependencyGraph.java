@@ -0,0 +1,305 @@
+package org.aron.context.core;
+
+import org.aron.context.annotation.Configuration;
+import org.aron.context.annotation.component.Autowired;
+import org.aron.context.annotation.component.Bean;
+import org.aron.context.core.InjectionPlan.FieldWriter;
+
+import java.lang.reflect.Method;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * bean依赖关系图
+ * 1. 依赖来源: @Autowired字段类型、@Configuration类中@Bean方法的参数类型
+ * 2. 依赖类型的提供者与getBean(Class)规则一致: 类型一致; 类型不可实例时为其实现类或子类
+ * 3. 按依赖关系分层: 同一层的bean互不依赖, 可并行实例化; 层内按类名排序保证顺序确定
+ * 4. 循环依赖: 按强连通分量分层, 同一个环上的bean在同一层; 依赖环的bean排在环之后, 依赖自身的bean也是一个环
+ *    字段注入在所有单例实例化之后进行 环上的bean互相注入尚未初始化完成的实例(提前引用)
+ * 5. 依赖关系只与类有关 类集合不变时复用分层结果
+ **/
+class DependencyGraph {
+
+    private static final Comparator<Class<?>> BY_NAME = Comparator.comparing(Class::getName);
+
+    /**
+     * 图中的bean类
+     */
+    private final Set<Class<?>> nodes;
+
+    /**
+     * bean类 -> 依赖的bean类
+     */
+    private final Map<Class<?>, Set<Class<?>>> dependencies;
+
+    /**
+     * 分层结果
+     */
+    private final List<List<Class<?>>> levels;
+
+    /**
+     * 循环依赖 每个环从类名最小的bean开始, 以该bean结束
+     */
+    private final List<List<Class<?>>> cycles;
+
+    private DependencyGraph(Set<Class<?>> nodes, Map<Class<?>, Set<Class<?>>> dependencies) {
+        this.nodes = nodes;
+        this.dependencies = dependencies;
+        List<List<Class<?>>> components = components(nodes, dependencies);
+        this.levels = layer(nodes, dependencies, components);
+        this.cycles = cyclesOf(components, dependencies);
+    }
+
+    /**
+     * 构建依赖关系图
+     * @param classes 需要实例化的bean类
+     */
+    static DependencyGraph build(Collection<Class<?>> classes) {
+        List<Class<?>> nodes = new ArrayList<>(classes);
+        nodes.sort(BY_NAME);
+        // 1. 类型 -> 提供该类型的bean类
+        Map<Class<?>, List<Class<?>>> providers = new HashMap<>();
+        for (Class<?> node : nodes) {
+            for (Class<?> type : BeanRegistry.hierarchyOf(node)) {
+                providers.computeIfAbsent(type, k -> new ArrayList<>()).add(node);
+            }
+        }
+        // 2. bean类 -> 依赖的bean类
+        Map<Class<?>, Set<Class<?>>> dependencies = new HashMap<>();
+        for (Class<?> node : nodes) {
+            Set<Class<?>> set = new LinkedHashSet<>();
+            for (Class<?> type : dependencyTypes(node)) {
+                for (Class<?> provider : providers.getOrDefault(type, Collections.emptyList())) {
+                    // 保留自身依赖 单个bean依赖自身也是循环依赖
+                    if (provider == type || IocManager.unInstance(type)) {
+                        set.add(provider);
+                    }
+                }
+            }
+            dependencies.put(node, set);
+        }
+        return new DependencyGraph(Collections.unmodifiableSet(new LinkedHashSet<>(nodes)), dependencies);
+    }
+
+    Set<Class<?>> getNodes() {
+        return nodes;
+    }
+
+    List<List<Class<?>>> getLevels() {
+        return levels;
+    }
+
+    Set<Class<?>> getDependencies(Class<?> clazz) {
+        return dependencies.getOrDefault(clazz, Collections.emptySet());
+    }
+
+    List<List<Class<?>>> getCycles() {
+        return cycles;
+    }
+
+    /**
+     * 只由满足条件的bean组成的循环依赖
+     * @param filter bean类过滤条件
+     */
+    List<List<Class<?>>> getCycles(Predicate<Class<?>> filter) {
+        Set<Class<?>> nodes = new LinkedHashSet<>();
+        for (Class<?> node : this.nodes) {
+            if (filter.test(node)) {
+                nodes.add(node);
+            }
+        }
+        Map<Class<?>, Set<Class<?>>> dependencies = new HashMap<>();
+        for (Class<?> node : nodes) {
+            Set<Class<?>> set = new LinkedHashSet<>(getDependencies(node));
+            set.retainAll(nodes);
+            dependencies.put(node, set);
+        }
+        return cyclesOf(components(nodes, dependencies), dependencies);
+    }
+
+    /**
+     * 循环依赖的描述 A -> B -> A
+     * @param cycle 环上的类 或@Bean方法等其他节点的描述
+     */
+    static String describe(List<?> cycle) {
+        StringBuilder builder = new StringBuilder();
+        for (Object node : cycle) {
+            if (builder.length() > 0) {
+                builder.append(" -> ");
+            }
+            builder.append(node instanceof Class ? ((Class<?>) node).getName() : node);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * bean类依赖的类型
+     */
+    private static List<Class<?>> dependencyTypes(Class<?> clazz) {
+        List<Class<?>> types = new ArrayList<>();
+        for (FieldWriter writer : InjectionPlan.of(clazz).getWriters()) {
+            types.add(writer.getType());
+        }
+        if (clazz.isAnnotationPresent(Configuration.class)) {
+            for (Method method : clazz.getDeclaredMethods()) {
+                if (method.isAnnotationPresent(Bean.class) || method.isAnnotationPresent(Autowired.class)) {
+                    Collections.addAll(types, method.getParameterTypes());
+                }
+            }
+        }
+        return types;
+    }
+
+    /**
+     * Tarjan算法求强连通分量 使用显式栈迭代, 依赖链很长时不会栈溢出
+     * @return 强连通分量 依赖的分量在前
+     */
+    private static List<List<Class<?>>> components(Set<Class<?>> nodes, Map<Class<?>, Set<Class<?>>> dependencies) {
+        Map<Class<?>, Integer> index = new HashMap<>();
+        Map<Class<?>, Integer> low = new HashMap<>();
+        Deque<Class<?>> stack = new ArrayDeque<>();
+        Set<Class<?>> onStack = new HashSet<>();
+        List<List<Class<?>>> components = new ArrayList<>();
+        // 正在访问的bean及其尚未访问的依赖
+        Deque<Class<?>> path = new ArrayDeque<>();
+        Deque<Iterator<Class<?>>> iterators = new ArrayDeque<>();
+        for (Class<?> root : nodes) {
+            if (index.containsKey(root)) {
+                continue;
+            }
+            visit(root, dependencies, index, low, stack, onStack, path, iterators);
+            while (!path.isEmpty()) {
+                Class<?> node = path.peek();
+                Iterator<Class<?>> iterator = iterators.peek();
+                if (iterator.hasNext()) {
+                    Class<?> dependency = iterator.next();
+                    if (!index.containsKey(dependency)) {
+                        visit(dependency, dependencies, index, low, stack, onStack, path, iterators);
+                    } else if (onStack.contains(dependency)) {
+                        low.put(node, Math.min(low.get(node), index.get(dependency)));
+                    }
+                    continue;
+                }
+                // 依赖全部访问完毕 回到调用方
+                path.pop();
+                iterators.pop();
+                if (!path.isEmpty()) {
+                    Class<?> parent = path.peek();
+                    low.put(parent, Math.min(low.get(parent), low.get(node)));
+                }
+                if (low.get(node).equals(index.get(node))) {
+                    List<Class<?>> component = new ArrayList<>();
+                    Class<?> member;
+                    do {
+                        member = stack.pop();
+                        onStack.remove(member);
+                        component.add(member);
+                    } while (member != node);
+                    component.sort(BY_NAME);
+                    components.add(component);
+                }
+            }
+        }
+        return components;
+    }
+
+    private static void visit(Class<?> node, Map<Class<?>, Set<Class<?>>> dependencies, Map<Class<?>, Integer> index,
+                              Map<Class<?>, Integer> low, Deque<Class<?>> stack, Set<Class<?>> onStack,
+                              Deque<Class<?>> path, Deque<Iterator<Class<?>>> iterators) {
+        index.put(node, index.size());
+        low.put(node, index.get(node));
+        stack.push(node);
+        onStack.add(node);
+        path.push(node);
+        iterators.push(dependencies.get(node).iterator());
+    }
+
+    /**
+     * 拓扑分层 同一个强连通分量的bean在同一层
+     * bean所在的层 = 依赖的bean所在的最大层 + 1
+     */
+    private static List<List<Class<?>>> layer(Set<Class<?>> nodes, Map<Class<?>, Set<Class<?>>> dependencies,
+                                              List<List<Class<?>>> components) {
+        Map<Class<?>, Integer> depths = new HashMap<>();
+        int max = -1;
+        for (List<Class<?>> component : components) {
+            int depth = 0;
+            for (Class<?> node : component) {
+                for (Class<?> dependency : dependencies.get(node)) {
+                    Integer value = depths.get(dependency);
+                    if (value != null) {
+                        depth = Math.max(depth, value + 1);
+                    }
+                }
+            }
+            for (Class<?> node : component) {
+                depths.put(node, depth);
+            }
+            max = Math.max(max, depth);
+        }
+        List<List<Class<?>>> levels = new ArrayList<>();
+        for (int i = 0; i <= max; i++) {
+            levels.add(new ArrayList<>());
+        }
+        // nodes已按类名排序
+        for (Class<?> node : nodes) {
+            levels.get(depths.get(node)).add(node);
+        }
+        for (int i = 0; i < levels.size(); i++) {
+            levels.set(i, Collections.unmodifiableList(levels.get(i)));
+        }
+        return Collections.unmodifiableList(levels);
+    }
+
+    /**
+     * 在包含多个bean或依赖自身的强连通分量中 找出从类名最小的bean出发再回到该bean的最短路径
+     */
+    private static List<List<Class<?>>> cyclesOf(List<List<Class<?>>> components, Map<Class<?>, Set<Class<?>>> dependencies) {
+        List<List<Class<?>>> cycles = new ArrayList<>();
+        for (List<Class<?>> component : components) {
+            Class<?> start = component.get(0);
+            if (component.size() < 2 && !dependencies.get(start).contains(start)) {
+                continue;
+            }
+            Set<Class<?>> members = new HashSet<>(component);
+            Map<Class<?>, Class<?>> parents = new HashMap<>();
+            Deque<Class<?>> queue = new ArrayDeque<>();
+            queue.add(start);
+            Class<?> last = null;
+            while (last == null && !queue.isEmpty()) {
+                Class<?> node = queue.poll();
+                for (Class<?> dependency : dependencies.get(node)) {
+                    if (dependency == start) {
+                        last = node;
+                        break;
+                    }
+                    if (members.contains(dependency) && !parents.containsKey(dependency)) {
+                        parents.put(dependency, node);
+                        queue.add(dependency);
+                    }
+                }
+            }
+            LinkedList<Class<?>> cycle = new LinkedList<>();
+            cycle.add(start);
+            for (Class<?> node = last; node != start; node = parents.get(node)) {
+                cycle.addFirst(node);
+            }
+            cycle.addFirst(start);
+            cycles.add(Collections.unmodifiableList(cycle));
+        }
+        return Collections.unmodifiableList(cycles);
+    }
+}
@@ -0,0 +1,191 @@
+package org.aron.context.core;
+
+import java.lang.annotation.Annotation;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 冻结后的只读注册表
+ * 1. beanName与类型均预先计算在开放寻址的数组表中 查找时只读取final数组, 不加锁、不读取volatile变量、不分配对象
+ *    按id查找只读取一次数组
+ * 2. 按类型查找的结果与冻结前一致(取冻结时索引中的第一个bean)
+ * 3. 只实现查询 不持有锁与可变索引; 冻结后IocManager在写入之前抛出IllegalStateException
+ * 4. 延迟加载的bean在冻结后仍可创建实例, 实例与beanName的对应关系记录在冻结前的注册表中(IocManager直接写入)
+ **/
+final class FrozenRegistry implements BeanLookup {
+
+    /**
+     * 冻结前的注册表 只用于实例 -> beanName 的反向查询
+     */
+    private final BeanRegistry source;
+
+    private final Map<String, Object> beans;
+
+    private final Collection<Object> values;
+
+    private final Table<String> names;
+
+    private final Table<Class<?>> exactTypes;
+
+    private final Table<Class<?>> types;
+
+    private final Table<Class<?>> annotations;
+
+    /**
+     * id -> bean
+     */
+    private final Object[] slots;
+
+    FrozenRegistry(BeanRegistry source, Map<String, Object> beans, Map<Class<?>, Map<String, Object>> exactIndex,
+                   Map<Class<?>, Map<String, Object>> typeIndex, Map<Class<?>, Map<String, Object>> annotationIndex) {
+        this.source = source;
+        this.beans = Collections.unmodifiableMap(new LinkedHashMap<>(beans));
+        this.values = this.beans.values();
+        this.names = new Table<>(beans.size());
+        beans.forEach((beanName, bean) -> this.names.put(beanName, bean, null));
+        this.exactTypes = table(exactIndex);
+        this.types = table(typeIndex);
+        this.annotations = table(annotationIndex);
+        this.slots = new Object[source.slotCount()];
+        for (int id = 0; id < this.slots.length; id++) {
+            this.slots[id] = source.slot(id);
+        }
+    }
+
+    @Override
+    public int idOf(String beanName) {
+        return this.source.idOf(beanName);
+    }
+
+    @Override
+    public Object slot(int id) {
+        return id >= 0 && id < this.slots.length ? this.slots[id] : null;
+    }
+
+    @Override
+    public boolean isFrozen() {
+        return true;
+    }
+
+    @Override
+    public Map<String, Object> getBeans() {
+        return this.beans;
+    }
+
+    @Override
+    public boolean contains(String beanName) {
+        return this.names.index(beanName) >= 0;
+    }
+
+    @Override
+    public Object get(String beanName) {
+        return this.names.first(beanName);
+    }
+
+    @Override
+    public Collection<Object> values() {
+        return this.values;
+    }
+
+    @Override
+    public Set<String> getNames(Object instance) {
+        return this.source.getNames(instance);
+    }
+
+    @Override
+    public Object getByExactType(Class<?> clazz) {
+        return this.exactTypes.first(clazz);
+    }
+
+    @Override
+    public Object getByType(Class<?> clazz) {
+        return this.types.first(clazz);
+    }
+
+    @Override
+    public Collection<Object> getAllByType(Class<?> clazz) {
+        return this.types.all(clazz);
+    }
+
+    @Override
+    public Collection<Object> getAllByAnnotation(Class<? extends Annotation> annotation) {
+        return this.annotations.all(annotation);
+    }
+
+    static IllegalStateException frozen() {
+        return new IllegalStateException("ioc container is frozen, beans can no longer be registered or removed");
+    }
+
+    private static Table<Class<?>> table(Map<Class<?>, Map<String, Object>> index) {
+        Table<Class<?>> table = new Table<>(index.size());
+        index.forEach((clazz, map) -> {
+            Object[] array = map.values().toArray();
+            if (array.length > 0) {
+                table.put(clazz, array[0], Collections.unmodifiableList(Arrays.asList(array)));
+            }
+        });
+        return table;
+    }
+
+    /**
+     * 开放寻址表 容量为2的幂且不小于元素数量的2倍, 线性探测
+     * key按equals比较, Class未重写equals即按引用比较
+     */
+    private static final class Table<K> {
+        private final Object[] keys;
+        private final Object[] firsts;
+        private final Object[] alls;
+        private final int mask;
+
+        private Table(int size) {
+            int capacity = Integer.highestOneBit(Math.max(2, size) * 2 - 1) << 1;
+            this.keys = new Object[capacity];
+            this.firsts = new Object[capacity];
+            this.alls = new Object[capacity];
+            this.mask = capacity - 1;
+        }
+
+        private void put(K key, Object first, List<Object> all) {
+            int i = slot(key);
+            while (this.keys[i] != null) {
+                i = (i + 1) & this.mask;
+            }
+            this.keys[i] = key;
+            this.firsts[i] = first;
+            this.alls[i] = all;
+        }
+
+        private int index(Object key) {
+            for (int i = slot(key); ; i = (i + 1) & this.mask) {
+                Object k = this.keys[i];
+                if (k == null) {
+                    return -1;
+                }
+                if (k == key || k.equals(key)) {
+                    return i;
+                }
+            }
+        }
+
+        private Object first(Object key) {
+            int i = index(key);
+            return i < 0 ? null : this.firsts[i];
+        }
+
+        @SuppressWarnings("unchecked")
+        private Collection<Object> all(Object key) {
+            int i = index(key);
+            return i < 0 ? Collections.emptyList() : (Collection<Object>) this.alls[i];
+        }
+
+        private int slot(Object key) {
+            int hash = key.hashCode();
+            return (hash ^ (hash >>> 16)) & this.mask;
+        }
+    }
+}
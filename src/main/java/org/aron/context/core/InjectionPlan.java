@@ -0,0 +1,126 @@
+package org.aron.context.core;
+
+import org.apache.commons.lang3.reflect.FieldUtils;
+import org.aron.context.annotation.component.Autowired;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 类的依赖注入计划
+ * 1. 每个类只解析一次@Autowired字段 结果缓存在ClassValue中
+ * 2. 过滤static、final修饰的字段
+ * 3. 字段读写通过VarHandle完成 注入时不再反射查找字段与校验修饰符
+ **/
+final class InjectionPlan {
+
+    private static final ClassValue<InjectionPlan> PLANS = new ClassValue<InjectionPlan>() {
+        @Override
+        protected InjectionPlan computeValue(Class<?> type) {
+            return compile(type);
+        }
+    };
+
+    private static final FieldWriter[] EMPTY = new FieldWriter[0];
+
+    private final FieldWriter[] writers;
+
+    private InjectionPlan(FieldWriter[] writers) {
+        this.writers = writers;
+    }
+
+    /**
+     * 获取类的注入计划
+     * @param clazz 类对象
+     */
+    static InjectionPlan of(Class<?> clazz) {
+        return PLANS.get(clazz);
+    }
+
+    FieldWriter[] getWriters() {
+        return this.writers;
+    }
+
+    boolean isEmpty() {
+        return this.writers.length == 0;
+    }
+
+    private static InjectionPlan compile(Class<?> clazz) {
+        Field[] fields = FieldUtils.getFieldsWithAnnotation(clazz, Autowired.class);
+        if (fields.length == 0) {
+            return new InjectionPlan(EMPTY);
+        }
+        List<FieldWriter> writers = new ArrayList<>(fields.length);
+        for (Field field : fields) {
+            int modifiers = field.getModifiers();
+            // 过滤 static、final修饰的变量
+            if (Modifier.isStatic(modifiers) || Modifier.isFinal(modifiers)) {
+                continue;
+            }
+            writers.add(new FieldWriter(field, handle(field)));
+        }
+        return new InjectionPlan(writers.toArray(EMPTY));
+    }
+
+    private static VarHandle handle(Field field) {
+        try {
+            return MethodHandles.privateLookupIn(field.getDeclaringClass(), MethodHandles.lookup())
+                    .unreflectVarHandle(field);
+        } catch (IllegalAccessException e) {
+            // 类所在模块未对外开放
+            throw new IllegalStateException("cannot access field " + field, e);
+        }
+    }
+
+    /**
+     * 字段写入器
+     */
+    static final class FieldWriter {
+
+        private final Field field;
+
+        private final Class<?> type;
+
+        private final VarHandle handle;
+
+        private FieldWriter(Field field, VarHandle handle) {
+            this.field = field;
+            this.type = field.getType();
+            this.handle = handle;
+        }
+
+        Field getField() {
+            return this.field;
+        }
+
+        /**
+         * 字段类型 即依赖类型
+         */
+        Class<?> getType() {
+            return this.type;
+        }
+
+        Object get(Object instance) {
+            return this.handle.get(instance);
+        }
+
+        /**
+         * 覆盖字段的值 用于热替换
+         */
+        void set(Object instance, Object value) {
+            this.handle.setVolatile(instance, value);
+        }
+
+        /**
+         * 字段尚未赋值时写入
+         * @return 是否写入成功
+         */
+        boolean setIfAbsent(Object instance, Object value) {
+            return this.handle.compareAndSet(instance, null, value);
+        }
+    }
+}
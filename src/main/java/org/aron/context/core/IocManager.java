@@ -1,25 +1,46 @@
 package org.aron.context.core;
 
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
 import lombok.Getter;
+import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.ClassUtils;
 import org.apache.commons.lang3.StringUtils;
-import org.apache.commons.lang3.reflect.FieldUtils;
 import org.aron.context.annotation.Configuration;
 import org.aron.context.annotation.component.*;
+import org.aron.context.core.ContainerSnapshot.BeanEntry;
+import org.aron.context.core.InjectionPlan.FieldWriter;
+import org.aron.context.core.startup.StartupRecorder;
 import org.aron.context.error.AnnotationException;
 import org.aron.context.error.BeanInstantiationException;
 
-import java.lang.reflect.Field;
-import java.lang.reflect.InvocationTargetException;
+import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * @author: Y-Aron
@@ -28,17 +49,110 @@ import java.util.concurrent.CopyOnWriteArraySet;
 @Slf4j
 public class IocManager {
 
-    // 类列表
+    /**
+     * 组件注解
+     */
+    private static final List<Class<? extends Annotation>> COMPONENTS = Arrays.asList(
+            Component.class, Service.class, Controller.class, Resource.class, Configuration.class);
+
+    /**
+     * 类本身、父类与所有接口 用于按注册类型查找prototype bean
+     */
+    private static final ClassValue<Class<?>[]> SUPERTYPES = new ClassValue<Class<?>[]>() {
+        @Override
+        protected Class<?>[] computeValue(Class<?> type) {
+            List<Class<?>> types = new ArrayList<>();
+            types.add(type);
+            types.addAll(ClassUtils.getAllSuperclasses(type));
+            types.addAll(ClassUtils.getAllInterfaces(type));
+            return types.toArray(new Class<?>[0]);
+        }
+    };
+
+    /**
+     * getBean按类型查找在热路径上 仅在事件启用时才创建LookupFallbackEvent
+     */
+    private static final EventType LOOKUP_FALLBACK = EventType.getEventType(LookupFallbackEvent.class);
+
+    /**
+     * 加载类、实例化、依赖注入、调用@Bean方法 同样仅在事件启用时才创建事件
+     */
+    private static final EventType CLASS_LOAD = EventType.getEventType(ClassLoadEvent.class);
+
+    private static final EventType INSTANTIATION = EventType.getEventType(InstantiationEvent.class);
+
+    private static final EventType INJECTION = EventType.getEventType(InjectionEvent.class);
+
+    private static final EventType BEAN_METHOD = EventType.getEventType(BeanMethodEvent.class);
+
+    // 类列表 并发写入时无需复制整个集合
     @Getter
     private Set<Class> classSet;
 
     /**
-     * 类名 -> 实例
+     * 类名 -> 实例 以及类型索引 注册与移除bean只写入该注册表
      */
-    @Getter
-    private Map<String, Object> ioc;
+    private BeanRegistry registry;
+
+    /**
+     * 查询bean时读取的注册表 冻结前即registry, 冻结后替换为只读的FrozenRegistry
+     */
+    private BeanLookup lookup;
+
+    private BeanInjector injector;
+
+    /**
+     * 注解 -> 类
+     */
+    private AnnotationIndex annotationIndex;
+
+    /**
+     * 并行实例化使用的线程池 为空时按parallelism创建ForkJoinPool
+     */
+    @Setter
+    private Executor executor;
 
-    private boolean isComponent;
+    /**
+     * 并行度 默认为1 即串行实例化
+     */
+    @Setter
+    private int parallelism = 1;
+
+    /**
+     * 启动过程记录 默认不记录
+     */
+    @Setter
+    private StartupRecorder recorder = StartupRecorder.NOOP;
+
+    /**
+     * 最近一次实例化使用的依赖关系图 组件类不变时复用
+     */
+    private DependencyGraph graph;
+
+    /**
+     * 最近一次实例化的bean 用于生成快照
+     */
+    private List<BeanEntry> plan = Collections.emptyList();
+
+    /**
+     * 实例化完成后通过setBean、@Bean方法注册的bean 按注册顺序
+     */
+    private final List<String> registered = Collections.synchronizedList(new ArrayList<>());
+
+    /**
+     * request作用域的bean在BeanScope中的下标 被替换或移除的bean归还下标, 分配时复用最小的空闲下标
+     */
+    private final BitSet scopeSlots = new BitSet();
+
+    /**
+     * 延迟加载bean的初始化锁 所有延迟加载bean共用, 避免互相依赖的bean按相反顺序加锁
+     */
+    private final ReentrantLock initLock = new ReentrantLock();
+
+    /**
+     * @WarmUp全部完成时结束
+     */
+    private volatile CompletableFuture<Void> readiness = CompletableFuture.completedFuture(null);
 
     private IocManager() {
     }
@@ -48,6 +162,9 @@ public class IocManager {
      * 1. newInstance=true && clazz!=null -> 初始化新的实例，并重置ioc容器且返回新的对象实例
      * 2. beanName 存在；直接返回实例对象
      * 3. clazz != null；返回clazz类或其实现类或子类实例
+     * 4. 延迟加载的bean 在此时实例化
+     * 5. prototype作用域的bean 每次返回新的实例(newInstance无影响)
+     * 6. request作用域的bean 返回当前BeanScope内的实例
      * @param beanName bean名称
      * @param clazz 目标类
      * @param newInstance 是否重新实例
@@ -55,27 +172,103 @@ public class IocManager {
     @SuppressWarnings("unchecked")
     public <T> T getBean(String beanName, Class<T> clazz, boolean newInstance) throws BeanInstantiationException, AnnotationException {
         if (newInstance) {
+            Object bean = clazz == null ? null : lookup(clazz);
+            if (bean instanceof PrototypeBean) {
+                return (T) ((PrototypeBean) bean).getObject();
+            }
             return (T) setBean(clazz, null, true);
         }
-        if (beanName != null && this.ioc.containsKey(beanName)) {
-            return (T) this.ioc.get(beanName);
+        if (beanName != null && this.lookup.contains(beanName)) {
+            return (T) getObject(this.lookup.get(beanName));
         }
         if (clazz != null) {
-            boolean instantiable = !unInstance(clazz);
-            for (Object value : this.ioc.values()) {
-                Class<?> targetClass = value.getClass();
-                // 当类名一致且当前类是可实例的时候；直接返回实例对象
-                if (targetClass.equals(clazz) && instantiable) {
-                    return (T) value;
-                }
-                // 当clazz不可实例且targetClass属于clazz的实现类或子类
-                if (!instantiable && clazz.isAssignableFrom(targetClass)) {
-                    return (T) value;
-                }
+            // 按名称未命中 或按父类/接口查找时记录
+            if (!LOOKUP_FALLBACK.isEnabled() || (beanName == null && !unInstance(clazz))) {
+                return (T) getObject(lookup(clazz));
+            }
+            LookupFallbackEvent event = new LookupFallbackEvent();
+            event.begin();
+            Object bean = lookup(clazz);
+            event.end();
+            if (event.shouldCommit()) {
+                event.beanName = beanName;
+                event.beanType = clazz;
+                event.found = bean != null;
+                event.commit();
             }
+            return (T) getObject(bean);
         }
         return null;
     }
+
+    /**
+     * 获取beanName对应的句柄 bean尚未注册时也可获取, 注册后即可通过句柄读取
+     * @param beanName bean名称
+     */
+    public <T> BeanHandle<T> getBeanHandle(String beanName) {
+        return new BeanHandle<>(this, this.lookup.idOf(beanName), beanName);
+    }
+
+    /**
+     * 获取clazz类或其实现类、子类的bean对应的句柄 查找规则与getBean一致
+     * @param clazz 目标类
+     * @return 容器中不存在时返回null
+     */
+    public <T> BeanHandle<T> getBeanHandle(Class<T> clazz) {
+        Object bean = lookup(clazz);
+        if (bean == null) {
+            return null;
+        }
+        for (String beanName : this.lookup.getNames(bean)) {
+            if (this.lookup.get(beanName) == bean) {
+                return getBeanHandle(beanName);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 按id获取bean
+     * @param id bean句柄的id
+     */
+    Object getBean(int id) throws AnnotationException, BeanInstantiationException {
+        return getObject(this.lookup.slot(id));
+    }
+
+    /**
+     * 按类型获取容器中的bean 不触发延迟加载
+     * 1. 当前类是可实例的时候；返回类名一致的实例对象
+     * 2. 当clazz不可实例时；返回clazz的实现类或子类的实例对象
+     * @param clazz 目标类
+     */
+    Object lookup(Class<?> clazz) {
+        return unInstance(clazz) ? this.lookup.getByType(clazz) : this.lookup.getByExactType(clazz);
+    }
+
+    /**
+     * 按beanName获取容器中的bean 不触发延迟加载
+     */
+    Object lookup(String beanName) {
+        return this.lookup.get(beanName);
+    }
+
+    /**
+     * 获取容器中保存的bean对应的实例
+     * 延迟加载的bean 在此时实例化
+     * @param bean 容器中保存的bean
+     */
+    public Object getObject(Object bean) throws AnnotationException, BeanInstantiationException {
+        return bean instanceof BeanProvider ? ((BeanProvider) bean).getObject() : bean;
+    }
+
+    /**
+     * 获取容器中保存的bean的类型 延迟加载的bean无需实例化
+     * @param bean 容器中保存的bean
+     */
+    public static Class<?> typeOf(Object bean) {
+        return BeanRegistry.typeOf(bean);
+    }
+
     public <T> T getBean(String beanName) throws BeanInstantiationException, AnnotationException {
         return getBean(beanName, null, false);
     }
@@ -84,13 +277,254 @@ public class IocManager {
         return getBean(null, clazz, false);
     }
 
+    /**
+     * 获取clazz类及其实现类、子类的所有实例
+     * 未开启BeanScope时不包含request作用域的bean
+     * @param clazz 目标类
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Collection<T> getBeansOfType(Class<T> clazz) throws AnnotationException, BeanInstantiationException {
+        Collection<Object> beans = this.lookup.getAllByType(clazz);
+        List<T> list = new ArrayList<>(beans.size());
+        for (Object bean : beans) {
+            if (isAvailable(bean)) {
+                list.add((T) getObject(bean));
+            }
+        }
+        return list;
+    }
+
+    /**
+     * bean当前能否获取实例 request作用域的bean只在BeanScope内可以获取
+     * @param bean 容器中保存的bean
+     */
+    static boolean isAvailable(Object bean) {
+        return !(bean instanceof ScopedBean) || BeanScope.current() != null;
+    }
+
+    /**
+     * 获取ioc容器 延迟加载的bean尚未实例化时为占位对象
+     */
+    public Map<String, Object> getIoc() {
+        return this.lookup.getBeans();
+    }
 
+    /**
+     * 将prototype bean的实例归还对象池
+     * @param instance 通过getBean获取的实例
+     * @return bean不是prototype作用域、未设置对象池或对象池已满时返回false
+     */
+    public boolean releaseBean(Object instance) {
+        if (instance == null) {
+            return false;
+        }
+        // 组件按实际类型注册; @Bean方法提供的bean按方法的返回类型注册 依次查找父类与接口
+        for (Class<?> type : SUPERTYPES.get(instance.getClass())) {
+            Object bean = this.lookup.getByExactType(type);
+            if (bean instanceof PrototypeBean) {
+                return ((PrototypeBean) bean).release(instance);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 获取被annotation修饰的类 包括扫包时尚未加载的类
+     * @return 不可变的快照
+     */
+    public Set<Class<?>> getClassWithAnnotation(Class<? extends Annotation> annotation) {
+        return this.annotationIndex.get(annotation);
+    }
+
+    /**
+     * 按注解获取容器中的bean 不触发延迟加载
+     * @return 弱一致的实时视图
+     */
+    Collection<Object> lookupWithAnnotation(Class<? extends Annotation> annotation) {
+        return this.lookup.getAllByAnnotation(annotation);
+    }
+
+    /**
+     * 索引扫包时从class文件中读取注解的类 第一次按注解查询时才加载
+     * @param classAnnotations 类名 -> 类上的注解类名
+     */
+    void indexClassNames(Map<String, Set<String>> classAnnotations) {
+        classAnnotations.forEach(this.annotationIndex::add);
+    }
+
+    /**
+     * 从ioc容器中移除实例对应的bean 按引用比较
+     * @param object 容器中的bean或延迟加载bean创建的实例
+     */
     public void removeBean(Object object) {
-        this.ioc.forEach((k, v) -> {
-            if (v.equals(object)) {
-                this.ioc.remove(k);
+        removeBeans(Collections.singletonList(object));
+    }
+
+    /**
+     * 批量移除bean 耗时只与移除的数量有关
+     * @param objects 容器中的bean或延迟加载bean创建的实例
+     */
+    public void removeBeans(Collection<?> objects) {
+        checkWritable();
+        List<Object> removed = new ArrayList<>(objects.size());
+        for (Object object : objects) {
+            for (String beanName : this.lookup.getNames(object)) {
+                Object old = this.registry.remove(beanName, object);
+                if (old != null) {
+                    removed.add(old);
+                    retire(old);
+                }
+            }
+        }
+        if (!removed.isEmpty()) {
+            this.injector.forget(removed);
+        }
+    }
+
+    /**
+     * 为request作用域的bean分配BeanScope中的下标
+     */
+    int allocateScopeSlot() {
+        synchronized (this.scopeSlots) {
+            int slot = this.scopeSlots.nextClearBit(0);
+            this.scopeSlots.set(slot);
+            return slot;
+        }
+    }
+
+    ReentrantLock getInitLock() {
+        return this.initLock;
+    }
+
+    /**
+     * 延迟加载的bean创建实例后 记录实例与beanName的对应关系
+     */
+    void link(BeanProvider provider, Object instance) {
+        this.registry.link(provider, instance);
+    }
+
+    /**
+     * 热替换类 只替换这些类的bean, 并重新注入依赖它们的bean
+     * 1. 类与容器中的类同名 由新的类加载器加载; 容器中的旧类从类列表与注解索引中移除
+     * 2. 单例bean创建新的实例、依赖注入并调用@PostConstruct, 旧的实例在重新注入完成后调用@PreDestroy
+     *    延迟加载与prototype、request作用域的bean 替换为新的占位对象
+     * 3. 其他bean中类型为被替换类的父类或接口的@Autowired字段 按类型重新注入;
+     *    字段类型是被替换的类本身时无法赋值 需要与被替换的类一起重新加载
+     * 4. 新的单例实例全部构造成功后才修改容器 构造失败时保留原来的bean
+     * 5. 替换期间不阻塞对容器的访问 仅用于开发环境
+     * @param classes 新加载的组件类
+     * @return 被替换或新增的beanName
+     */
+    public List<String> reload(Collection<Class<?>> classes) throws AnnotationException, BeanInstantiationException {
+        checkWritable();
+        Map<String, Class<?>> byName = new HashMap<>();
+        for (Class<?> clazz : classes) {
+            byName.put(clazz.getName(), clazz);
+        }
+        List<Class<?>> olds = new ArrayList<>();
+        for (Class<?> clazz : this.classSet) {
+            if (byName.containsKey(clazz.getName()) && byName.get(clazz.getName()) != clazz) {
+                olds.add(clazz);
+            }
+        }
+        // 1. 先创建所有新的bean 构造失败时不修改容器
+        List<String> names = new ArrayList<>();
+        List<Object> beans = new ArrayList<>();
+        for (Class<?> clazz : classes) {
+            if (!isComponent(clazz) || unInstance(clazz)) {
+                continue;
+            }
+            String beanName = getBeanName(clazz, null);
+            Object old = this.lookup.get(beanName);
+            if (old != null && !typeOf(old).getName().equals(clazz.getName())) {
+                log.warn("bean[{}] of class {} is not replaced by {}", beanName, typeOf(old).getName(), clazz.getName());
+                continue;
+            }
+            byte kind = kindOf(clazz);
+            names.add(beanName);
+            beans.add(kind == BeanEntry.SINGLETON ? newInstance(clazz) : placeholder(clazz, kind, poolSizeOf(clazz)));
+        }
+        for (Class<?> clazz : olds) {
+            this.classSet.remove(clazz);
+            this.annotationIndex.remove(clazz);
+        }
+        for (Class<?> clazz : classes) {
+            addClass(clazz);
+        }
+        // 2. 替换bean 全部放入容器后再依赖注入
+        List<Object> created = new ArrayList<>();
+        List<Object> retired = new ArrayList<>();
+        for (int i = 0; i < names.size(); i++) {
+            Object bean = beans.get(i);
+            Object old = this.registry.put(names.get(i), bean);
+            forget(old);
+            if (!(bean instanceof BeanProvider)) {
+                created.add(bean);
+            }
+            Object instance = old instanceof LazyBean ? ((LazyBean) old).peek() : old;
+            if (instance != null && !(instance instanceof BeanProvider)) {
+                retired.add(instance);
+            }
+        }
+        for (Object instance : created) {
+            inject(instance);
+        }
+        for (Object instance : created) {
+            this.injector.resolve(instance);
+        }
+        // 3. 只重新注入依赖被替换类的bean
+        Set<Object> skipped = Collections.newSetFromMap(new IdentityHashMap<>());
+        skipped.addAll(created);
+        for (Object bean : this.lookup.values()) {
+            Object instance = bean instanceof LazyBean ? ((LazyBean) bean).peek() : bean;
+            if (instance == null || instance instanceof BeanProvider || !skipped.add(instance)) {
+                continue;
+            }
+            for (FieldWriter writer : InjectionPlan.of(instance.getClass()).getWriters()) {
+                for (Class<?> old : olds) {
+                    if (!writer.getType().isAssignableFrom(old)) {
+                        continue;
+                    }
+                    if (!this.injector.rewire(instance, writer)) {
+                        log.warn("field {}.{} still refers to the old {}, reload it together with the class",
+                                instance.getClass().getName(), writer.getField().getName(), old.getName());
+                    }
+                    break;
+                }
             }
-        });
+        }
+        for (Object instance : created) {
+            initialize(instance);
+        }
+        for (Object instance : retired) {
+            LifecyclePlan.of(instance.getClass()).preDestroy(instance);
+        }
+        return names;
+    }
+
+    /**
+     * 冻结ioc容器 之后的查询不加锁、不分配对象
+     * 1. 需在初始化完成后调用 调用期间不能有并发的注册与移除
+     * 2. 冻结后注册、移除bean以及重新实例化容器均抛出IllegalStateException
+     * 3. 延迟加载与prototype作用域的bean仍可获取实例
+     */
+    public void freeze() {
+        if (!this.lookup.isFrozen()) {
+            this.lookup = this.registry.freeze();
+        }
+    }
+
+    public boolean isFrozen() {
+        return this.lookup.isFrozen();
+    }
+
+    /**
+     * 冻结后 在实例化之前拒绝写操作
+     */
+    private void checkWritable() {
+        if (this.lookup.isFrozen()) {
+            throw FrozenRegistry.frozen();
+        }
     }
 
     /**
@@ -100,21 +534,189 @@ public class IocManager {
      * @param alias 别名
      */
     public void setBean(Method method, Object object, String alias) throws AnnotationException, BeanInstantiationException {
-        method.setAccessible(true);
-        Class<?>[] parameters = method.getParameterTypes();
-        Object[] paramValues = new Object[parameters.length];
-        for (int i = 0; i < parameters.length; i++) {
-            paramValues[i] = this.getBean(null, parameters[i], false);
-            if (paramValues[i] == null) {
-                throw new AnnotationException("methods whose arguments are not in the ioc container cannot be executed");
+        setBeans(new BeanMethod[]{BeanMethod.of(method, alias)}, new Object[]{object});
+    }
+
+    /**
+     * 执行@Bean方法 将返回值注入到ioc容器中
+     * 1. 返回类型或beanName已存在于容器中 或与之前的方法重复时抛出异常
+     * 2. 执行前将参数按类型解析为容器中的bean或其他@Bean方法的返回值 保存在参数槽中
+     * 3. 按参数依赖分层 同一层的方法互不依赖, 使用设置的线程池并行执行; 按方法顺序放入容器
+     * 4. prototype作用域的方法不在此时执行 放入占位对象, 每次获取时用参数槽重新调用
+     * @param methods @Bean方法
+     * @param targets 与methods一一对应的配置类实例
+     */
+    void setBeans(BeanMethod[] methods, Object[] targets) throws AnnotationException, BeanInstantiationException {
+        checkWritable();
+        int count = methods.length;
+        Set<String> beanNames = new HashSet<>(count);
+        for (int i = 0; i < count; i++) {
+            methods[i].check();
+            Class<?> clazz = methods[i].getType();
+            // 只查询容器 不触发延迟加载、不创建prototype与request作用域的实例
+            if (lookup(clazz) != null) {
+                throw new BeanInstantiationException(clazz + " is already exists in the ioc container");
+            }
+            String beanName = getBeanName(clazz, methods[i].getAlias());
+            if (this.lookup.contains(beanName) || !beanNames.add(beanName)) {
+                throw new BeanInstantiationException("bean name[" + beanName + "] of " + methods[i] + "() is already exists in the ioc container");
+            }
+            for (int j = 0; j < i; j++) {
+                if (clazz.isAssignableFrom(methods[j].getType()) || methods[j].getType().isAssignableFrom(clazz)) {
+                    throw new BeanInstantiationException(clazz + " is already exists in the ioc container");
+                }
             }
         }
+        // 参数槽: 容器中的bean 或依赖的方法下标
+        Object[][] parameters = new Object[count][];
+        int[][] dependencies = new int[count][];
+        for (int i = 0; i < count; i++) {
+            Class<?>[] types = methods[i].getParameterTypes();
+            parameters[i] = new Object[types.length];
+            dependencies[i] = new int[types.length];
+            for (int j = 0; j < types.length; j++) {
+                parameters[i][j] = lookup(types[j]);
+                dependencies[i][j] = parameters[i][j] != null ? -1 : producerOf(methods, types[j]);
+                if (parameters[i][j] == null && dependencies[i][j] < 0) {
+                    throw new AnnotationException("methods whose arguments are not in the ioc container cannot be executed");
+                }
+            }
+        }
+        List<List<Integer>> levels = levelsOf(methods, dependencies);
+        Object[] results = new Object[count];
+        ForkJoinPool pool = null;
+        Executor executor = this.executor;
+        if (executor == null && this.parallelism > 1 && levels.size() < count) {
+            executor = pool = new ForkJoinPool(this.parallelism);
+        }
         try {
-            Object result = method.invoke(object, paramValues);
-            this.ioc.put(getBeanName(result.getClass(), alias), result);
-        } catch (IllegalAccessException | InvocationTargetException e) {
-            throw new BeanInstantiationException(e.getMessage());
+            for (List<Integer> level : levels) {
+                for (int i : level) {
+                    for (int j = 0; j < dependencies[i].length; j++) {
+                        if (dependencies[i][j] >= 0) {
+                            parameters[i][j] = results[dependencies[i][j]];
+                        }
+                    }
+                }
+                parallel(executor, level, (k, i) -> {
+                    results[i] = methods[i].isPrototype() ? new PrototypeBean(methods[i], targets[i], parameters[i], this)
+                            : invoke(methods[i], targets[i], parameters[i]);
+                });
+                for (int i : level) {
+                    if (results[i] instanceof PrototypeBean) {
+                        forget(this.registry.put(getBeanName(methods[i].getType(), methods[i].getAlias()), results[i]));
+                    } else {
+                        register(getBeanName(results[i].getClass(), methods[i].getAlias()), results[i]);
+                    }
+                }
+                parallel(executor, level, (k, i) -> {
+                    if (!(results[i] instanceof PrototypeBean)) {
+                        initialize(results[i]);
+                    }
+                });
+                for (int i : level) {
+                    if (!(results[i] instanceof PrototypeBean)) {
+                        this.registered.add(getBeanName(results[i].getClass(), methods[i].getAlias()));
+                    }
+                }
+            }
+        } finally {
+            if (pool != null) {
+                pool.shutdown();
+            }
+        }
+    }
+
+    /**
+     * 返回值可以作为该类型参数的方法下标
+     * @return 不存在时返回-1
+     */
+    private static int producerOf(BeanMethod[] methods, Class<?> type) {
+        for (int i = 0; i < methods.length; i++) {
+            if (type.isAssignableFrom(methods[i].getType())) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 按参数依赖将@Bean方法分层 每层按方法顺序排列
+     * @throws AnnotationException 方法之间存在循环依赖
+     */
+    private static List<List<Integer>> levelsOf(BeanMethod[] methods, int[][] dependencies) throws AnnotationException {
+        int[] depths = new int[methods.length];
+        List<List<Integer>> levels = new ArrayList<>();
+        for (int i = 0; i < methods.length; i++) {
+            depthOf(i, methods, dependencies, depths, new ArrayList<>());
+        }
+        for (int i = 0; i < methods.length; i++) {
+            while (levels.size() < depths[i]) {
+                levels.add(new ArrayList<>());
+            }
+            levels.get(depths[i] - 1).add(i);
+        }
+        return levels;
+    }
+
+    /**
+     * @param depths 0 未计算; -1 计算中; 大于0 方法所在的层(从1开始)
+     * @param path 正在计算的方法 用于描述循环依赖
+     */
+    private static int depthOf(int i, BeanMethod[] methods, int[][] dependencies, int[] depths, List<Integer> path) throws AnnotationException {
+        if (depths[i] > 0) {
+            return depths[i];
+        }
+        if (depths[i] < 0) {
+            List<String> cycle = new ArrayList<>();
+            for (int k = path.indexOf(i); k < path.size(); k++) {
+                cycle.add(methods[path.get(k)] + "()");
+            }
+            cycle.add(methods[i] + "()");
+            throw new AnnotationException("circular dependency between @Bean methods: " + DependencyGraph.describe(cycle));
+        }
+        depths[i] = -1;
+        path.add(i);
+        int depth = 1;
+        for (int dependency : dependencies[i]) {
+            if (dependency >= 0) {
+                depth = Math.max(depth, depthOf(dependency, methods, dependencies, depths, path) + 1);
+            }
         }
+        path.remove(path.size() - 1);
+        return depths[i] = depth;
+    }
+
+    /**
+     * 调用@Bean方法
+     * @param method @Bean方法
+     * @param target 配置类实例
+     * @param parameters 参数槽 容器中保存的bean, 调用时获取实例
+     */
+    Object invoke(BeanMethod method, Object target, Object[] parameters) throws AnnotationException, BeanInstantiationException {
+        Object[] args = new Object[parameters.length];
+        for (int i = 0; i < args.length; i++) {
+            args[i] = getObject(parameters[i]);
+        }
+        long start = this.recorder.start();
+        long allocated = this.recorder.allocated();
+        Object result;
+        if (BEAN_METHOD.isEnabled()) {
+            BeanMethodEvent event = new BeanMethodEvent();
+            event.begin();
+            result = method.invoke(target, args);
+            event.end();
+            if (event.shouldCommit()) {
+                event.beanName = method.getAlias();
+                event.beanType = method.getType();
+                event.method = method.toString();
+                event.commit();
+            }
+        } else {
+            result = method.invoke(target, args);
+        }
+        this.recorder.constructed(result.getClass(), start, allocated);
+        return result;
     }
 
     /**
@@ -122,12 +724,14 @@ public class IocManager {
      * @param instance 实例对象
      */
     public Object setBean(Class<?> clazz, Object instance, boolean isBean) throws AnnotationException, BeanInstantiationException {
+        checkWritable();
         if (!isBean && clazz != null) {
-            this.classSet.add(clazz);
+            addClass(clazz);
         }
+        boolean created = false;
         if (instance == null && clazz != null) {
             String beanName = getBeanName(clazz, null);
-            if (this.ioc.containsKey(beanName)) {
+            if (this.lookup.contains(beanName)) {
                 throw new BeanInstantiationException("class["+ clazz +"] is" +
                         " are not allowed to continue injecting beans into the ioc container" );
             }
@@ -139,14 +743,19 @@ public class IocManager {
                     }
                 }
             }
+            created = true;
         }
         if (instance != null) {
             clazz = clazz == null ? instance.getClass() : clazz;
             String beanName = this.getBeanName(clazz, null);
-            if (!this.ioc.containsKey(beanName)) {
-                this.ioc.put(beanName, instance);
-                this.classSet.add(clazz);
-                doAllInject();
+            if (this.registry.putIfAbsent(beanName, instance) == null) {
+                addClass(clazz);
+                inject(instance);
+                this.injector.resolve(instance);
+                if (created) {
+                    initialize(instance);
+                }
+                this.registered.add(beanName);
             }
             return instance;
         }
@@ -158,86 +767,504 @@ public class IocManager {
      * 1. class 没有被@Component、@Controller、@Service、@Resource等修饰无须实例化
      * 2. class 已在ioc容器内则无需实例化 但要实现依赖注入
      * 3，实现成员变量存在@Autowired时自动依赖注入
+     * 4. 按依赖关系分层 同一层的bean互不依赖 并行实例化; 全部放入容器后并行依赖注入
+     * 5. 延迟加载与prototype、request作用域的bean 只放入占位对象
+     * 6. 记录实例化顺序 用于生成快照
+     * 7. 依赖关系图在组件类不变时复用; 字段注入的循环依赖通过提前引用解决, prototype作用域的bean之间的循环依赖抛出异常
      * @param classes 类名数组
      * @throws AnnotationException 注解异常
      * @throws BeanInstantiationException bean 实例化失败
      */
     public void doInstance(Class<?>... classes) throws AnnotationException, BeanInstantiationException {
+        checkWritable();
         if (ArrayUtils.isNotEmpty(classes)) {
-            this.classSet.addAll(Arrays.asList(classes));
+            for (Class<?> clazz : classes) {
+                addClass(clazz);
+            }
         }
+        // 1. 过滤非组件类与不可实例的类
+        List<Class<?>> types = new ArrayList<>();
+        List<BeanEntry> entries = new ArrayList<>();
+        Map<Class<?>, String> beanNames = new HashMap<>();
+        Set<Class<?>> components = new HashSet<>();
+        Set<Class<?>> prototypes = new HashSet<>();
         for (Class<?> clazz : this.classSet) {
+            if (!isComponent(clazz) || unInstance(clazz)) {
+                continue;
+            }
+            components.add(clazz);
             String beanName = getBeanName(clazz, null);
-            if (this.isComponent) {
-                Object instance = newInstance(clazz);
-                if (instance != null) {
-                    this.ioc.put(beanName, instance);
+            byte kind = kindOf(clazz);
+            if (kind == BeanEntry.SINGLETON) {
+                beanNames.put(clazz, beanName);
+                continue;
+            }
+            if (kind == BeanEntry.PROTOTYPE) {
+                prototypes.add(clazz);
+            }
+            types.add(clazz);
+            entries.add(new BeanEntry(clazz.getName(), beanName, kind, poolSizeOf(clazz), -1));
+        }
+        DependencyGraph graph = this.graph;
+        if (graph == null || !graph.getNodes().equals(components)) {
+            this.graph = graph = DependencyGraph.build(components);
+        }
+        // prototype作用域的bean之间的循环依赖 每次创建都会创建新的依赖, 无法结束
+        List<List<Class<?>>> cycles = graph.getCycles(prototypes::contains);
+        if (!cycles.isEmpty()) {
+            throw new AnnotationException("circular dependency between prototype beans: " + DependencyGraph.describe(cycles.get(0)));
+        }
+        for (List<Class<?>> cycle : graph.getCycles()) {
+            log.debug("circular dependency resolved with early references: {}", DependencyGraph.describe(cycle));
+        }
+        // 延迟加载与prototype、request作用域的bean已放入占位对象 只保留单例所在的层
+        int level = 0;
+        for (List<Class<?>> batch : graph.getLevels()) {
+            int size = entries.size();
+            for (Class<?> clazz : batch) {
+                String beanName = beanNames.get(clazz);
+                if (beanName != null) {
+                    types.add(clazz);
+                    entries.add(new BeanEntry(clazz.getName(), beanName, BeanEntry.SINGLETON, 0, level));
                 }
             }
+            if (entries.size() > size) {
+                level++;
+            }
         }
-        doAllInject();
+        instantiate(types, entries);
     }
 
-    private void doAllInject() throws AnnotationException, BeanInstantiationException {
-        for (Object value : this.ioc.values()) {
-            doInject(value.getClass(), value);
+    /**
+     * 按快照回放实例化 跳过组件判断、beanName推导与依赖分析
+     * @param snapshot 容器快照
+     */
+    public void doInstance(ContainerSnapshot snapshot) throws AnnotationException, BeanInstantiationException, ClassNotFoundException {
+        checkWritable();
+        List<BeanEntry> entries = snapshot.getBeans();
+        List<Class<?>> types = new ArrayList<>(entries.size());
+        for (BeanEntry entry : entries) {
+            Class<?> clazz = loadClass(entry.className);
+            addClass(clazz);
+            types.add(clazz);
         }
+        instantiate(types, entries);
     }
 
     /**
-     * 实现对象依赖注入
+     * 最近一次实例化的bean 依赖记录为实际注入的beanName
      */
-    private void doInject(Class<?> clazz, Object instance) throws AnnotationException, BeanInstantiationException {
-        Field[] fields = FieldUtils.getFieldsWithAnnotation(clazz, Autowired.class);
-        if (fields.length > 0) {
-            // 存在@Autowired注解 则表示自动注入
-            for (Field field : fields) {
-                inject(field, instance);
+    List<BeanEntry> snapshotBeans() {
+        List<BeanEntry> entries = new ArrayList<>(this.plan.size());
+        for (BeanEntry planned : this.plan) {
+            BeanEntry entry = new BeanEntry(planned.className, planned.beanName, planned.kind, planned.poolSize, planned.level);
+            Object instance = this.lookup.get(entry.beanName);
+            if (entry.kind == BeanEntry.SINGLETON && instance != null && instance.getClass().getName().equals(entry.className)) {
+                FieldWriter[] writers = InjectionPlan.of(instance.getClass()).getWriters();
+                entry.dependencies = new String[writers.length];
+                for (int i = 0; i < writers.length; i++) {
+                    entry.dependencies[i] = nameOf(writers[i].get(instance));
+                }
             }
+            entries.add(entry);
         }
+        return entries;
     }
 
     /**
-     * 实现对象依赖注入
-     * 1. 过滤static修饰的变量
-     * 2. 过滤final修饰的变量
-     * 3. 字段类型被@Component、@Controller、@Service、@Resource修饰的则注入
-     * @param field 需要注入的字段
-     * @param instance 对象实例
+     * 获取字段值在容器中的beanName 代理对象、prototype实例等不在容器中的值返回null
      */
-    private void inject(Field field, Object instance) throws AnnotationException, BeanInstantiationException {
-//        log.debug("----------开始依赖注入----------");
-        // 过滤 static修饰的变量
-        if (Modifier.isStatic(field.getModifiers())) {
-            return;
+    private String nameOf(Object value) {
+        if (value == null) {
+            return null;
         }
-        // 过滤 final修饰的变量
-        if (Modifier.isFinal(field.getModifiers())) {
-            return;
+        for (String beanName : this.lookup.getNames(value)) {
+            Object bean = this.lookup.get(beanName);
+            if (bean == value || bean instanceof BeanProvider) {
+                return beanName;
+            }
         }
-        field.setAccessible(true);
+        return null;
+    }
 
+    /**
+     * 实例化并依赖注入
+     * @param types 与entries一一对应的类
+     * @param entries 占位对象在前, 其余按依赖层级排列
+     */
+    private void instantiate(List<Class<?>> types, List<BeanEntry> entries) throws AnnotationException, BeanInstantiationException {
+        List<Object> instances = new ArrayList<>(entries.size());
+        int index = 0;
+        // 延迟加载与prototype、request作用域的bean 只放入占位对象
+        for (; index < entries.size() && entries.get(index).level < 0; index++) {
+            BeanEntry entry = entries.get(index);
+            BeanProvider bean = placeholder(types.get(index), entry.kind, entry.poolSize);
+            forget(this.registry.put(entry.beanName, bean));
+            instances.add(bean);
+        }
+        ForkJoinPool pool = null;
+        Executor executor = this.executor;
+        if (executor == null && this.parallelism > 1) {
+            executor = pool = new ForkJoinPool(this.parallelism);
+        }
+        StartupRecorder recorder = this.recorder;
         try {
-            // 判断当前字段是否已经赋值
-            if (field.get(instance) == null) {
-                // 获取对象类型 判断ioc容器中是否存在bean 初始化bean后给字段赋值
-                Class<?> clazz = field.getType();
-                Object object = this.getBean(clazz);
-                if (object != null) {
-                    field.set(instance, object);
+            // 2. 逐层并行实例化 按层内顺序放入容器 保证结果确定
+            try (StartupRecorder.Phase ignored = recorder.phase("instantiate")) {
+                while (index < entries.size()) {
+                    int from = index;
+                    int level = entries.get(from).level;
+                    while (index < entries.size() && entries.get(index).level == level) {
+                        index++;
+                    }
+                    List<Class<?>> batch = types.subList(from, index);
+                    Object[] created = new Object[batch.size()];
+                    parallel(executor, batch, (i, clazz) -> {
+                        long start = recorder.start();
+                        long allocated = recorder.allocated();
+                        created[i] = newInstance(clazz);
+                        recorder.constructed(clazz, start, allocated);
+                    });
+                    for (int i = 0; i < created.length; i++) {
+                        forget(this.registry.put(entries.get(from + i).beanName, created[i]));
+                        instances.add(created[i]);
+                    }
                 }
             }
-        } catch (IllegalAccessException e) {
-            throw new BeanInstantiationException(e.getMessage());
+            // 3. 全部实例放入容器后再依赖注入 减少等待注入的字段
+            try (StartupRecorder.Phase ignored = recorder.phase("inject")) {
+                parallel(executor, instances, (i, instance) -> {
+                    if (!(instance instanceof BeanProvider)) {
+                        long start = recorder.start();
+                        inject(instance, entries.get(i).dependencies);
+                        recorder.injected(instance.getClass(), start);
+                    }
+                });
+                for (Object instance : instances) {
+                    this.injector.resolve(instance);
+                }
+            }
+            // 4. 按依赖层级调用@PostConstruct 同一层的bean并行调用
+            try (StartupRecorder.Phase ignored = recorder.phase("postConstruct")) {
+                for (List<Object> level : levels(entries)) {
+                    parallel(executor, level, (i, instance) -> initialize(instance));
+                }
+            }
+        } finally {
+            if (pool != null) {
+                pool.shutdown();
+            }
+        }
+        this.registered.clear();
+        this.plan = entries;
+    }
+
+    /**
+     * bean的作用域 对应快照中的BeanEntry.kind
+     */
+    private static byte kindOf(Class<?> clazz) {
+        Scope scope = clazz.getAnnotation(Scope.class);
+        if (scope != null && Scope.PROTOTYPE.equals(scope.value())) {
+            return BeanEntry.PROTOTYPE;
+        }
+        if (scope != null && Scope.REQUEST.equals(scope.value())) {
+            return BeanEntry.REQUEST;
+        }
+        Lazy lazy = clazz.getAnnotation(Lazy.class);
+        return lazy != null && lazy.value() ? BeanEntry.LAZY : BeanEntry.SINGLETON;
+    }
+
+    private static int poolSizeOf(Class<?> clazz) {
+        Scope scope = clazz.getAnnotation(Scope.class);
+        return scope != null && Scope.PROTOTYPE.equals(scope.value()) ? scope.poolSize() : 0;
+    }
+
+    /**
+     * 延迟加载与prototype、request作用域的bean的占位对象
+     */
+    private BeanProvider placeholder(Class<?> type, byte kind, int poolSize) {
+        if (kind == BeanEntry.PROTOTYPE) {
+            return new PrototypeBean(type, poolSize, this);
+        }
+        if (kind == BeanEntry.REQUEST) {
+            return new ScopedBean(type, this);
+        }
+        return new LazyBean(type, this);
+    }
+
+    /**
+     * 按依赖层级分组的单例bean 延迟加载与prototype、request作用域的bean除外
+     * @param entries 实例化计划
+     */
+    private List<List<Object>> levels(List<BeanEntry> entries) {
+        List<List<Object>> levels = new ArrayList<>();
+        int level = -1;
+        for (BeanEntry entry : entries) {
+            Object bean = this.lookup.get(entry.beanName);
+            if (entry.level < 0 || bean == null || bean instanceof BeanProvider) {
+                continue;
+            }
+            if (entry.level != level || levels.isEmpty()) {
+                levels.add(new ArrayList<>());
+                level = entry.level;
+            }
+            levels.get(levels.size() - 1).add(bean);
+        }
+        return levels;
+    }
+
+    /**
+     * 容器中没有对应bean的@Autowired字段
+     * @return 类名.字段名(字段类型)
+     */
+    public List<String> getUnresolved() {
+        return this.injector.unresolved();
+    }
+
+    /**
+     * 调用实例的@PostConstruct方法
+     * @param instance 实例化并完成依赖注入的对象
+     */
+    void initialize(Object instance) throws BeanInstantiationException {
+        LifecyclePlan.of(instance.getClass()).postConstruct(instance);
+    }
+
+    /**
+     * 在后台按依赖层级调用@WarmUp方法 同一层的bean并行调用, 上一层全部完成后再调用下一层
+     * 使用设置的线程池 未设置时使用ForkJoinPool.commonPool()
+     * @return 全部完成时结束 任一方法抛出异常时异常结束
+     */
+    public CompletableFuture<Void> warmUp() {
+        List<List<Object>> levels = levels(this.plan);
+        List<Object> extra = new ArrayList<>();
+        for (String beanName : snapshotOf(this.registered)) {
+            Object bean = this.lookup.get(beanName);
+            if (bean != null && !(bean instanceof BeanProvider)) {
+                extra.add(bean);
+            }
+        }
+        levels.add(extra);
+        Executor executor = this.executor != null ? this.executor : ForkJoinPool.commonPool();
+        CompletableFuture<Void> ready = CompletableFuture.completedFuture(null);
+        for (List<Object> level : levels) {
+            List<Object> beans = new ArrayList<>();
+            for (Object bean : level) {
+                if (LifecyclePlan.of(bean.getClass()).hasWarmUp()) {
+                    beans.add(bean);
+                }
+            }
+            if (beans.isEmpty()) {
+                continue;
+            }
+            ready = ready.thenCompose(v -> {
+                CompletableFuture<?>[] futures = new CompletableFuture[beans.size()];
+                for (int i = 0; i < futures.length; i++) {
+                    Object bean = beans.get(i);
+                    futures[i] = CompletableFuture.runAsync(() -> {
+                        try {
+                            LifecyclePlan.of(bean.getClass()).warmUp(bean);
+                        } catch (BeanInstantiationException e) {
+                            throw new CompletionException(e);
+                        }
+                    }, executor);
+                }
+                return CompletableFuture.allOf(futures);
+            });
+        }
+        this.readiness = ready;
+        return ready;
+    }
+
+    /**
+     * @WarmUp全部完成时结束的future
+     */
+    public CompletableFuture<Void> getReadiness() {
+        return this.readiness;
+    }
+
+    /**
+     * 销毁ioc容器
+     * 1. 等待@WarmUp结束
+     * 2. 按注册的逆序销毁实例化完成后注册的bean
+     * 3. 销毁已创建实例的延迟加载bean, 再按依赖层级的逆序分层销毁单例bean 同一层的bean并行调用@PreDestroy
+     * 4. 从容器中移除销毁的bean 冻结的容器只调用@PreDestroy
+     * prototype作用域的实例由调用方管理, request作用域的实例在BeanScope关闭时销毁
+     */
+    public void destroy() throws AnnotationException, BeanInstantiationException {
+        this.readiness.handle((v, e) -> null).join();
+        List<List<Object>> levels = new ArrayList<>();
+        List<String> registered = snapshotOf(this.registered);
+        for (int i = registered.size() - 1; i >= 0; i--) {
+            Object bean = this.lookup.get(registered.get(i));
+            if (bean != null && !(bean instanceof BeanProvider)) {
+                levels.add(Collections.singletonList(bean));
+            }
+        }
+        List<Object> lazies = new ArrayList<>();
+        for (BeanEntry entry : this.plan) {
+            Object bean = this.lookup.get(entry.beanName);
+            if (entry.kind == BeanEntry.LAZY && bean instanceof LazyBean && ((LazyBean) bean).peek() != null) {
+                lazies.add(((LazyBean) bean).peek());
+            }
+        }
+        levels.add(lazies);
+        List<List<Object>> singletons = levels(this.plan);
+        Collections.reverse(singletons);
+        levels.addAll(singletons);
+
+        List<Object> removed = new ArrayList<>();
+        ForkJoinPool pool = null;
+        Executor executor = this.executor;
+        if (executor == null && this.parallelism > 1) {
+            executor = pool = new ForkJoinPool(this.parallelism);
+        }
+        try {
+            for (List<Object> level : levels) {
+                parallel(executor, level, (i, bean) -> LifecyclePlan.of(bean.getClass()).preDestroy(bean));
+                removed.addAll(level);
+            }
+        } finally {
+            if (pool != null) {
+                pool.shutdown();
+            }
+        }
+        if (!this.lookup.isFrozen()) {
+            for (BeanEntry entry : this.plan) {
+                Object bean = this.lookup.get(entry.beanName);
+                if (bean instanceof BeanProvider) {
+                    removed.add(bean);
+                }
+            }
+            removeBeans(removed);
+        }
+        this.registered.clear();
+        this.plan = Collections.emptyList();
+    }
+
+    private static List<String> snapshotOf(List<String> list) {
+        synchronized (list) {
+            return new ArrayList<>(list);
+        }
+    }
+
+    /**
+     * 在线程池中执行任务并等待全部完成
+     * 线程池为空或只有一个任务时 直接在当前线程执行
+     */
+    private <T> void parallel(Executor executor, List<T> items, Task<T> task) throws AnnotationException, BeanInstantiationException {
+        if (executor == null || items.size() <= 1) {
+            for (int i = 0; i < items.size(); i++) {
+                task.run(i, items.get(i));
+            }
+            return;
+        }
+        CompletableFuture<?>[] futures = new CompletableFuture[items.size()];
+        for (int i = 0; i < futures.length; i++) {
+            int index = i;
+            futures[i] = CompletableFuture.runAsync(() -> {
+                try {
+                    task.run(index, items.get(index));
+                } catch (AnnotationException | BeanInstantiationException e) {
+                    throw new CompletionException(e);
+                }
+            }, executor);
+        }
+        try {
+            CompletableFuture.allOf(futures).join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof AnnotationException) {
+                throw (AnnotationException) cause;
+            }
+            if (cause instanceof BeanInstantiationException) {
+                throw (BeanInstantiationException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw e;
+        }
+    }
+
+    @FunctionalInterface
+    private interface Task<T> {
+        void run(int index, T item) throws AnnotationException, BeanInstantiationException;
+    }
+
+    /**
+     * 为实例对象的@Autowired字段注入依赖
+     * @param instance 对象实例
+     */
+    void inject(Object instance) throws AnnotationException, BeanInstantiationException {
+        inject(instance, null);
+    }
+
+    /**
+     * 为实例对象的@Autowired字段注入依赖
+     * @param instance 对象实例
+     * @param dependencies 快照记录的beanName 无法直接注入时按类型注入
+     */
+    private void inject(Object instance, String[] dependencies) throws AnnotationException, BeanInstantiationException {
+        if (!INJECTION.isEnabled()) {
+            if (dependencies == null || !this.injector.wire(instance, dependencies)) {
+                this.injector.inject(instance);
+            }
+            return;
+        }
+        InjectionEvent event = new InjectionEvent();
+        event.begin();
+        if (dependencies == null || !this.injector.wire(instance, dependencies)) {
+            this.injector.inject(instance);
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            Set<String> names = this.lookup.getNames(instance);
+            event.beanName = names.isEmpty() ? null : names.iterator().next();
+            event.beanType = instance.getClass();
+            event.fields = InjectionPlan.of(instance.getClass()).getWriters().length;
+            event.commit();
+        }
+    }
+
+    /**
+     * 将bean放入ioc容器并增量依赖注入
+     * 1. 为bean自身的@Autowired字段注入依赖
+     * 2. 填充容器中等待该bean类型的字段
+     * @param beanName bean名称
+     * @param instance 实例对象
+     */
+    private void register(String beanName, Object instance) throws AnnotationException, BeanInstantiationException {
+        forget(this.registry.put(beanName, instance));
+        inject(instance);
+        this.injector.resolve(instance);
+    }
+
+    /**
+     * 丢弃被覆盖的bean等待注入的字段 并归还其BeanScope下标
+     */
+    private void forget(Object old) {
+        if (old != null) {
+            this.injector.forget(Collections.singletonList(old));
+            retire(old);
+        }
+    }
+
+    /**
+     * 归还被替换或移除的request作用域bean的下标
+     */
+    private void retire(Object old) {
+        if (old instanceof ScopedBean) {
+            synchronized (this.scopeSlots) {
+                this.scopeSlots.clear(((ScopedBean) old).getIndex());
+            }
         }
-//        log.debug("----------依赖注入完毕！----------");
     }
 
     /**
      * 判断类是否时接口 / 抽象类 / 基本类型 / 数组
      * @param clazz 类名
      */
-    private boolean unInstance(final Class<?> clazz) {
+    static boolean unInstance(final Class<?> clazz) {
         if (clazz == null) {
             return false;
         }
@@ -259,20 +1286,53 @@ public class IocManager {
      * 3. class为基本类型无法实例化
      * 4. class为数组无法实例化
      * 5. class必须有无参构造方法 否则无法实例化
+     * 6. 通过预先生成的Supplier直接调用构造方法
      * @param clazz 类名
      * @throws BeanInstantiationException bean实例化失败
      */
-    private Object newInstance(final Class<?> clazz) throws BeanInstantiationException {
+    Object newInstance(final Class<?> clazz) throws BeanInstantiationException {
         if (unInstance(clazz)) {
             return null;
         }
+        InstantiationEvent event = INSTANTIATION.isEnabled() ? new InstantiationEvent() : null;
+        if (event != null) {
+            event.begin();
+        }
         try {
-            return clazz.newInstance();
-        } catch (InstantiationException | IllegalAccessException e) {
-            throw new BeanInstantiationException(e.getMessage());
+            return BeanFactories.of(clazz).get();
+        } catch (Exception e) {
+            throw new BeanInstantiationException("class[" + clazz.getName() + "] instantiation failed: " + e.getMessage(), e);
+        } finally {
+            if (event != null) {
+                event.end();
+                if (event.shouldCommit()) {
+                    event.beanName = clazz.getSimpleName();
+                    event.beanType = clazz;
+                    event.commit();
+                }
+            }
+        }
+    }
+
+    private void addClass(Class<?> clazz) {
+        if (this.classSet.add(clazz)) {
+            this.annotationIndex.add(clazz);
         }
     }
 
+    /**
+     * 判断类是否被@Component、@Service、@Controller、@Resource、@Configuration修饰
+     * @param clazz 类对象
+     */
+    static boolean isComponent(Class<?> clazz) {
+        for (Class<? extends Annotation> annotation : COMPONENTS) {
+            if (clazz.isAnnotationPresent(annotation)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * 初始化beanName
      * @param clazz 类对象
@@ -280,30 +1340,24 @@ public class IocManager {
      */
     private String getBeanName(Class<?> clazz, String alias) throws AnnotationException {
         int count = 0;
-        this.isComponent = false;
         if (clazz.isAnnotationPresent(Component.class)) {
             alias = clazz.getAnnotation(Component.class).value();
-            this.isComponent = true;
             count++;
         }
         if (clazz.isAnnotationPresent(Service.class)) {
             alias = clazz.getAnnotation(Service.class).value();
-            this.isComponent = true;
             count++;
         }
         if (clazz.isAnnotationPresent(Controller.class)) {
             alias = clazz.getAnnotation(Controller.class).value();
-            this.isComponent = true;
             count++;
         }
         if (clazz.isAnnotationPresent(Resource.class)) {
             alias = clazz.getAnnotation(Resource.class).value();
-            this.isComponent = true;
             count++;
         }
         if (clazz.isAnnotationPresent(Configuration.class)) {
             alias = clazz.getAnnotation(Configuration.class).value();
-            this.isComponent = true;
             count++;
         }
         if (count <= 1) {
@@ -314,8 +1368,48 @@ public class IocManager {
     }
 
 
+    /**
+     * 加载并初始化类
+     */
+    static Class<?> loadClass(String className) throws ClassNotFoundException {
+        if (!CLASS_LOAD.isEnabled()) {
+            return ClassUtils.getClass(className);
+        }
+        ClassLoadEvent event = new ClassLoadEvent();
+        event.begin();
+        Class<?> clazz = ClassUtils.getClass(className);
+        event.end();
+        if (event.shouldCommit()) {
+            event.className = className;
+            event.commit();
+        }
+        return clazz;
+    }
+
+    /**
+     * 在初始化容器之前加载类 用于流水线式初始化
+     * 组件类同时生成注入计划与生命周期方法 实例化时直接读取缓存
+     * @param className 类名
+     */
+    public static Class<?> preload(String className) throws ClassNotFoundException {
+        Class<?> clazz = loadClass(className);
+        if (isComponent(clazz) && !unInstance(clazz)) {
+            InjectionPlan.of(clazz);
+            LifecyclePlan.of(clazz);
+        }
+        return clazz;
+    }
+
     public static IocManager getInstance(Set<String> classSet) throws ClassNotFoundException {
-        return Singleton.INSTANCE.getSingleton(classSet);
+        return Singleton.INSTANCE.getSingleton(classSet, Collections.emptyMap());
+    }
+
+    /**
+     * @param classSet 类名
+     * @param loaded 已经加载的 类名 -> 类 其余的类在此时加载
+     */
+    public static IocManager getInstance(Set<String> classSet, Map<String, Class<?>> loaded) throws ClassNotFoundException {
+        return Singleton.INSTANCE.getSingleton(classSet, loaded);
     }
 
     private enum Singleton {
@@ -324,15 +1418,90 @@ public class IocManager {
 
         Singleton() {
             this.singleton = new IocManager();
-            this.singleton.ioc = new ConcurrentHashMap<>();
+            this.singleton.registry = new BeanRegistry();
+            this.singleton.lookup = this.singleton.registry;
+            this.singleton.injector = new BeanInjector(this.singleton);
         }
 
-        public IocManager getSingleton(Set<String> classSet) throws ClassNotFoundException {
-            this.singleton.classSet = new CopyOnWriteArraySet<>();
+        public IocManager getSingleton(Set<String> classSet, Map<String, Class<?>> loaded) throws ClassNotFoundException {
+            this.singleton.classSet = ConcurrentHashMap.newKeySet();
+            this.singleton.annotationIndex = new AnnotationIndex();
             for (String className : classSet) {
-                this.singleton.classSet.add(ClassUtils.getClass(className));
+                Class<?> clazz = loaded.get(className);
+                this.singleton.addClass(clazz != null ? clazz : loadClass(className));
             }
             return singleton;
         }
     }
+
+    /*
+     * JFR事件 耗时与线程由JFR记录
+     * 未开启录制时shouldCommit()返回false 不填充字段
+     */
+
+    @Name("org.aron.context.ClassLoad")
+    @Label("Class Load")
+    @Category("Fly Context")
+    @StackTrace(false)
+    static final class ClassLoadEvent extends Event {
+        @Label("Class Name")
+        String className;
+    }
+
+    @Name("org.aron.context.Instantiation")
+    @Label("Bean Instantiation")
+    @Category("Fly Context")
+    @StackTrace(false)
+    static final class InstantiationEvent extends Event {
+        @Label("Bean Name")
+        String beanName;
+
+        @Label("Bean Type")
+        Class<?> beanType;
+    }
+
+    @Name("org.aron.context.Injection")
+    @Label("Field Injection")
+    @Category("Fly Context")
+    @StackTrace(false)
+    static final class InjectionEvent extends Event {
+        @Label("Bean Name")
+        String beanName;
+
+        @Label("Bean Type")
+        Class<?> beanType;
+
+        @Label("Autowired Fields")
+        int fields;
+    }
+
+    @Name("org.aron.context.BeanMethod")
+    @Label("@Bean Method Invocation")
+    @Category("Fly Context")
+    @StackTrace(false)
+    static final class BeanMethodEvent extends Event {
+        @Label("Bean Name")
+        String beanName;
+
+        @Label("Bean Type")
+        Class<?> beanType;
+
+        @Label("Method")
+        String method;
+    }
+
+    @Name("org.aron.context.LookupFallback")
+    @Label("getBean Type Fallback")
+    @Description("getBean未按名称命中或按父类/接口查找")
+    @Category("Fly Context")
+    static final class LookupFallbackEvent extends Event {
+        @Label("Bean Name")
+        String beanName;
+
+        @Label("Bean Type")
+        Class<?> beanType;
+
+        @Label("Found")
+        boolean found;
+    }
 }
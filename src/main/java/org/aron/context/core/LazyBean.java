@@ -0,0 +1,98 @@
+package org.aron.context.core;
+
+import org.aron.context.error.AnnotationException;
+import org.aron.context.error.BeanInstantiationException;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 延迟加载的bean
+ * 1. 第一次获取时实例化、依赖注入并调用@PostConstruct, 保证只实例化一次
+ * 2. 同一容器的延迟加载bean共用一把初始化锁(IocManager.getInitLock) 互相依赖的bean在不同线程上同时初始化时不会按相反顺序加锁而死锁
+ * 3. 实例化完成后通过volatile读取 不再加锁
+ * 4. 依赖注入过程中同一线程再次获取(循环依赖)时返回尚未注入完成的实例; 构造方法中再次获取自身时抛出BeanInstantiationException
+ **/
+class LazyBean implements BeanProvider {
+
+    private final Class<?> type;
+
+    private final IocManager iocManager;
+
+    private volatile Object instance;
+
+    /**
+     * 正在依赖注入的实例 只在持有锁的线程中可见
+     */
+    private Object early;
+
+    /**
+     * 是否正在调用构造方法 只在持有锁的线程中可见
+     */
+    private boolean constructing;
+
+    LazyBean(Class<?> type, IocManager iocManager) {
+        this.type = type;
+        this.iocManager = iocManager;
+    }
+
+    @Override
+    public Class<?> getType() {
+        return this.type;
+    }
+
+    @Override
+    public Object getObject() throws AnnotationException, BeanInstantiationException {
+        Object result = this.instance;
+        if (result != null) {
+            return result;
+        }
+        ReentrantLock lock = this.iocManager.getInitLock();
+        lock.lock();
+        try {
+            if (this.instance != null) {
+                return this.instance;
+            }
+            if (this.early != null) {
+                return this.early;
+            }
+            if (this.constructing) {
+                throw new BeanInstantiationException("lazy bean[" + this.type.getName() + "] is requested while its constructor is running");
+            }
+            this.constructing = true;
+            try {
+                this.early = this.iocManager.newInstance(this.type);
+            } finally {
+                this.constructing = false;
+            }
+            try {
+                this.iocManager.inject(this.early);
+                this.iocManager.initialize(this.early);
+                this.instance = this.early;
+                this.iocManager.link(this, this.instance);
+            } finally {
+                this.early = null;
+            }
+            return this.instance;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean isDeferred() {
+        return this.instance == null;
+    }
+
+    /**
+     * 获取已创建的实例
+     * @return 尚未实例化时返回null
+     */
+    Object peek() {
+        return this.instance;
+    }
+
+    @Override
+    public String toString() {
+        return "LazyBean[" + this.type.getName() + (this.instance == null ? "" : ", " + this.instance) + "]";
+    }
+}
@@ -0,0 +1,127 @@
+package org.aron.context.core;
+
+import lombok.extern.slf4j.Slf4j;
+import org.aron.context.annotation.lifecycle.PostConstruct;
+import org.aron.context.annotation.lifecycle.PreDestroy;
+import org.aron.context.annotation.lifecycle.WarmUp;
+import org.aron.context.error.BeanInstantiationException;
+
+import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 类的生命周期回调
+ * 1. 每个类只查找一次@PostConstruct、@PreDestroy、@WarmUp方法 结果缓存在ClassValue中
+ * 2. 父类的方法先于子类调用; 子类重写的方法只调用一次
+ * 3. 回调方法必须是无参的实例方法 通过MethodHandle调用
+ **/
+@Slf4j
+final class LifecyclePlan {
+
+    private static final ClassValue<LifecyclePlan> PLANS = new ClassValue<LifecyclePlan>() {
+        @Override
+        protected LifecyclePlan computeValue(Class<?> type) {
+            return new LifecyclePlan(find(type, PostConstruct.class), find(type, PreDestroy.class), find(type, WarmUp.class));
+        }
+    };
+
+    private static final MethodHandle[] EMPTY = new MethodHandle[0];
+
+    private final MethodHandle[] postConstruct;
+
+    private final MethodHandle[] preDestroy;
+
+    private final MethodHandle[] warmUp;
+
+    private LifecyclePlan(MethodHandle[] postConstruct, MethodHandle[] preDestroy, MethodHandle[] warmUp) {
+        this.postConstruct = postConstruct;
+        this.preDestroy = preDestroy;
+        this.warmUp = warmUp;
+    }
+
+    static LifecyclePlan of(Class<?> clazz) {
+        return PLANS.get(clazz);
+    }
+
+    boolean hasPreDestroy() {
+        return this.preDestroy.length > 0;
+    }
+
+    boolean hasWarmUp() {
+        return this.warmUp.length > 0;
+    }
+
+    /**
+     * 调用@PostConstruct方法
+     * @throws BeanInstantiationException 回调方法抛出异常
+     */
+    void postConstruct(Object instance) throws BeanInstantiationException {
+        for (MethodHandle handle : this.postConstruct) {
+            try {
+                handle.invoke(instance);
+            } catch (Throwable e) {
+                throw new BeanInstantiationException("@PostConstruct of class[" + instance.getClass().getName() + "] failed: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * 调用@PreDestroy方法 异常只记录日志, 不影响其他bean的销毁
+     */
+    void preDestroy(Object instance) {
+        for (MethodHandle handle : this.preDestroy) {
+            try {
+                handle.invoke(instance);
+            } catch (Throwable e) {
+                log.warn("@PreDestroy of class[{}] failed", instance.getClass().getName(), e);
+            }
+        }
+    }
+
+    /**
+     * 调用@WarmUp方法
+     * @throws BeanInstantiationException 回调方法抛出异常
+     */
+    void warmUp(Object instance) throws BeanInstantiationException {
+        for (MethodHandle handle : this.warmUp) {
+            try {
+                handle.invoke(instance);
+            } catch (Throwable e) {
+                throw new BeanInstantiationException("@WarmUp of class[" + instance.getClass().getName() + "] failed: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * 查找类及其父类中被annotation修饰的无参方法 父类的方法在前
+     */
+    private static MethodHandle[] find(Class<?> type, Class<? extends Annotation> annotation) {
+        List<MethodHandle> handles = new ArrayList<>(0);
+        Set<String> names = new HashSet<>();
+        for (Class<?> clazz = type; clazz != null && clazz != Object.class; clazz = clazz.getSuperclass()) {
+            List<MethodHandle> declared = new ArrayList<>(0);
+            for (Method method : clazz.getDeclaredMethods()) {
+                if (!method.isAnnotationPresent(annotation) || !names.add(method.getName())) {
+                    continue;
+                }
+                if (method.getParameterCount() != 0 || Modifier.isStatic(method.getModifiers())) {
+                    throw new IllegalStateException("@" + annotation.getSimpleName() + " method " + method + " must be a no-arg instance method");
+                }
+                try {
+                    declared.add(MethodHandles.privateLookupIn(clazz, MethodHandles.lookup()).unreflect(method));
+                } catch (IllegalAccessException e) {
+                    throw new IllegalStateException("unable to access @" + annotation.getSimpleName() + " method " + method, e);
+                }
+            }
+            handles.addAll(0, declared);
+        }
+        return handles.isEmpty() ? EMPTY : handles.toArray(EMPTY);
+    }
+}
@@ -0,0 +1,90 @@
+package org.aron.context.core;
+
+import org.aron.context.error.AnnotationException;
+import org.aron.context.error.BeanInstantiationException;
+
+/**
+ * prototype作用域的bean
+ * 1. 每次获取时通过预编译的构造器创建新实例、依赖注入并调用@PostConstruct 实例不由容器销毁
+ * 2. 设置了对象池时优先从对象池中获取, 调用release归还
+ * 3. 由@Bean方法提供时 用执行配置时解析好的参数重新调用该方法创建实例
+ **/
+class PrototypeBean implements BeanProvider {
+
+    private final Class<?> type;
+
+    private final IocManager iocManager;
+
+    /**
+     * 对象池 未设置poolSize时为null
+     */
+    private final BeanPool pool;
+
+    /**
+     * 提供实例的@Bean方法 通过构造器创建时为null
+     */
+    private final BeanMethod factory;
+
+    private final Object target;
+
+    /**
+     * @Bean方法的参数 容器中保存的bean, 调用时获取实例
+     */
+    private final Object[] parameters;
+
+    PrototypeBean(Class<?> type, int poolSize, IocManager iocManager) {
+        this(type, poolSize, iocManager, null, null, null);
+    }
+
+    PrototypeBean(BeanMethod factory, Object target, Object[] parameters, IocManager iocManager) {
+        this(factory.getType(), factory.getPoolSize(), iocManager, factory, target, parameters);
+    }
+
+    private PrototypeBean(Class<?> type, int poolSize, IocManager iocManager, BeanMethod factory, Object target, Object[] parameters) {
+        this.type = type;
+        this.iocManager = iocManager;
+        this.pool = poolSize > 0 ? new BeanPool(type, poolSize) : null;
+        this.factory = factory;
+        this.target = target;
+        this.parameters = parameters;
+    }
+
+    @Override
+    public Class<?> getType() {
+        return this.type;
+    }
+
+    @Override
+    public Object getObject() throws AnnotationException, BeanInstantiationException {
+        if (this.pool != null) {
+            Object instance = this.pool.acquire();
+            if (instance != null) {
+                return instance;
+            }
+        }
+        Object instance = this.factory == null ? this.iocManager.newInstance(this.type)
+                : this.iocManager.invoke(this.factory, this.target, this.parameters);
+        this.iocManager.inject(instance);
+        this.iocManager.initialize(instance);
+        return instance;
+    }
+
+    @Override
+    public boolean isDeferred() {
+        return false;
+    }
+
+    /**
+     * 将实例归还对象池
+     * @return 未设置对象池、对象池已满或重置失败时返回false
+     */
+    boolean release(Object instance) {
+        return this.pool != null && (this.factory == null ? this.type == instance.getClass() : this.type.isInstance(instance))
+                && this.pool.release(instance);
+    }
+
+    @Override
+    public String toString() {
+        return "PrototypeBean[" + (this.factory == null ? this.type.getName() : this.factory + "()") + (this.pool == null ? "" : ", " + this.pool) + "]";
+    }
+}
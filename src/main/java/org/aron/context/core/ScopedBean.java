@@ -0,0 +1,69 @@
+package org.aron.context.core;
+
+import org.aron.context.error.AnnotationException;
+import org.aron.context.error.BeanInstantiationException;
+
+/**
+ * request作用域的bean
+ * 1. 从当前线程绑定的BeanScope中获取实例 作用域内第一次获取时创建、依赖注入并调用@PostConstruct
+ * 2. 每个bean从所在容器分配固定的下标 BeanScope按下标保存实例, 获取时只读取数组; bean被替换或移除后下标归还容器复用
+ * 3. 没有绑定的BeanScope时抛出BeanInstantiationException
+ **/
+class ScopedBean implements BeanProvider {
+
+    private final Class<?> type;
+
+    private final IocManager iocManager;
+
+    /**
+     * 实例在BeanScope中的下标
+     */
+    private final int index;
+
+    ScopedBean(Class<?> type, IocManager iocManager) {
+        this.type = type;
+        this.iocManager = iocManager;
+        this.index = iocManager.allocateScopeSlot();
+    }
+
+    @Override
+    public Class<?> getType() {
+        return this.type;
+    }
+
+    @Override
+    public Object getObject() throws AnnotationException, BeanInstantiationException {
+        BeanScope scope = BeanScope.current();
+        if (scope == null) {
+            throw new BeanInstantiationException("request-scoped bean[" + this.type.getName() + "] is accessed outside of a BeanScope");
+        }
+        return scope.get(this);
+    }
+
+    /**
+     * 实例只在作用域内有效 接口类型的字段注入代理
+     */
+    @Override
+    public boolean isDeferred() {
+        return true;
+    }
+
+    int getIndex() {
+        return this.index;
+    }
+
+    /**
+     * 创建作用域内的实例
+     */
+    Object create() throws AnnotationException, BeanInstantiationException {
+        Object instance = this.iocManager.newInstance(this.type);
+        this.iocManager.inject(instance);
+        this.iocManager.initialize(instance);
+        return instance;
+    }
+
+    @Override
+    public String toString() {
+        return "ScopedBean[" + this.type.getName() + "]";
+    }
+}
@@ -1,16 +1,49 @@
 package org.aron.context.core.impl;
 
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.ArrayUtils;
 import org.aron.commons.io.FileUtils;
+import org.aron.context.annotation.Configuration;
+import org.aron.context.annotation.component.Component;
+import org.aron.context.annotation.component.Controller;
+import org.aron.context.annotation.component.Resource;
+import org.aron.context.annotation.component.Service;
 import org.aron.context.core.AbstractApplicationContext;
+import org.aron.context.core.ApplicationContext;
+import org.aron.context.core.ClassWatcher;
+import org.aron.context.core.IocManager;
+import org.aron.context.core.scan.ClassMetadata;
+import org.aron.context.core.scan.ClassMetadataReader;
+import org.aron.context.core.scan.ComponentIndex;
+import org.aron.context.core.scan.PackageIndex;
+import org.aron.context.core.startup.StartupRecorder;
 import org.aron.context.error.AnnotationException;
 import org.aron.context.error.BeanInstantiationException;
 
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.lang.annotation.Annotation;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.CodeSource;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
 
 import static org.aron.commons.utils.Utils.convertPackageToPath;
 import static org.aron.commons.utils.Utils.convertPathToClassName;
@@ -18,6 +51,13 @@ import static org.aron.commons.utils.Utils.convertPathToClassName;
 @Slf4j
 public class AnnotationApplicationContext extends AbstractApplicationContext {
 
+    /**
+     * 组件注解类名
+     */
+    private static final Set<String> COMPONENT_ANNOTATIONS = new HashSet<>(Arrays.asList(
+            Component.class.getName(), Service.class.getName(), Controller.class.getName(),
+            Resource.class.getName(), Configuration.class.getName()));
+
     private String rootPath;
 
     public AnnotationApplicationContext() { }
@@ -29,60 +69,269 @@ public class AnnotationApplicationContext extends AbstractApplicationContext {
     @Override
     public void init() throws BeanInstantiationException, AnnotationException, ClassNotFoundException {
         log.debug("----------开始初始化IOC容器----------");
+        this.startupRecorder.reset();
         // 0. 获取class根路径
-        if (this.appClass != null) {
-            rootPath = this.appClass.getResource("").getPath().replaceAll("/", "\\" + File.separator);
+        initRootPath();
+        this.loadedClasses = Collections.emptyMap();
+        // 1. 初始化所有关联的类 快照有效时直接恢复 存在组件索引时直接读取索引 否则扫描用户设定的包下面所有的类
+        if (!restoreSnapshot()) {
+            scan(null);
+        }
+        instantiate();
+    }
+
+    /**
+     * 流水线式初始化
+     * 1. 扫包线程边遍历目录边解析class文件 发现组件后立即提交到线程池加载类、生成注入计划, 不等待目录遍历完成
+     * 2. 快照有效或存在组件索引时 所有组件一次性提交加载
+     * 3. 按依赖层级实例化需要完整的类集合 所有类加载完成后再实例化、加载@Configuration并写入快照
+     * 扫包与实例化在ForkJoinPool.commonPool()中执行; 加载类使用setExecutor()设置的线程池, 未设置时使用ForkJoinPool.commonPool()
+     */
+    @Override
+    public CompletableFuture<ApplicationContext> initAsync() {
+        Executor executor = this.executor != null ? this.executor : ForkJoinPool.commonPool();
+        this.startupRecorder.reset();
+        return CompletableFuture.supplyAsync(() -> {
+            log.debug("----------开始异步初始化IOC容器----------");
+            initRootPath();
+            Map<String, CompletableFuture<Class<?>>> loading = new LinkedHashMap<>();
+            Consumer<String> preload = className -> loading.computeIfAbsent(className, name -> CompletableFuture.supplyAsync(() -> {
+                try {
+                    return IocManager.preload(name);
+                } catch (ClassNotFoundException e) {
+                    throw new CompletionException(e);
+                }
+            }, executor));
+            if (restoreSnapshot()) {
+                this.componentNames.forEach(preload);
+            } else {
+                try {
+                    scan(preload);
+                } catch (ClassNotFoundException e) {
+                    throw new CompletionException(e);
+                }
+            }
+            return loading;
+        }, ForkJoinPool.commonPool()).thenCompose(loading -> CompletableFuture.allOf(loading.values().toArray(new CompletableFuture[0]))
+                .thenApply(ignored -> {
+                    Map<String, Class<?>> loaded = new HashMap<>(loading.size());
+                    loading.forEach((className, future) -> loaded.put(className, future.join()));
+                    return loaded;
+                })
+        ).thenApplyAsync(loaded -> {
+            this.loadedClasses = loaded;
+            try {
+                instantiate();
+            } catch (BeanInstantiationException | AnnotationException | ClassNotFoundException e) {
+                throw new CompletionException(e);
+            }
+            return this;
+        }, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * 扫包的根路径 从jar中启动时没有可扫描的目录, 为null
+     */
+    private void initRootPath() {
+        String classPath = getClassPath();
+        if (classPath == null || this.appClass == null || this.appClass.getPackage().getName().isEmpty()) {
+            rootPath = classPath;
         } else {
-            rootPath = this.getClass().getResource("/").getPath().replaceAll("/", "\\" + File.separator);
+            rootPath = classPath + this.appClass.getPackage().getName().replace('.', File.separatorChar) + File.separator;
         }
         log.debug("root path: {}", rootPath);
-        // 1. 初始化所有关联的类 扫描用户设定的包下面所有的类
-        this.classNames = new HashSet<>(0);
-        try {
-            doScanPackage(scanPackages, filterPackages);
-        } catch (FileNotFoundException e) {
-            throw new ClassNotFoundException();
-        }
+    }
+
+    /**
+     * 实例化组件并加载@Configuration
+     */
+    private void instantiate() throws BeanInstantiationException, AnnotationException, ClassNotFoundException {
         // 2. 通过反射机制实例化类并放入ioc容器中
         // key=beanName -> value=bean
         // beanName 默认是类名
         // 如果beanName已经在容器中, 则不在添加bean
-        doInstance(classNames);
+        // 只有组件类需要加载
+        doInstance(componentNames);
         this.showBean();
         log.debug("================================================================");
         this.getIocManager().getClassSet().forEach(clazz -> log.debug("{}", clazz));
         loadConfiguration();
+        for (String field : this.getIocManager().getUnresolved()) {
+            log.warn("@Autowired field {} is not resolved: no matching bean in the ioc container", field);
+        }
+        writeSnapshot();
+        // 3. 在后台执行@WarmUp 通过ready()等待完成
+        this.getIocManager().warmUp();
+        if (this.startupRecorder.isEnabled()) {
+            log.info("startup report: {}", this.startupRecorder.toJson());
+        }
         log.debug("----------初始化IOC容器完毕！----------");
     }
 
+    /**
+     * 读取组件索引或扫包
+     * @param components 发现组件时的回调 为空时一次性列出所有文件后再解析; 不为空时边遍历目录边解析
+     */
+    private void scan(Consumer<String> components) throws ClassNotFoundException {
+        this.classNames = new HashSet<>(0);
+        this.componentNames = new HashSet<>(0);
+        this.classAnnotations = new HashMap<>(0);
+        PackageScanEvent event = new PackageScanEvent();
+        event.begin();
+        try (StartupRecorder.Phase ignored = this.startupRecorder.phase("scan")) {
+            // 只使用appClass所在的目录或jar中的索引 其他jar中的索引不能代替扫包
+            URL classRoot = getClassRoot();
+            ComponentIndex index = ComponentIndex.load(classRoot);
+            event.indexed = index != null;
+            if (index != null) {
+                String[] packages = ArrayUtils.isEmpty(scanPackages) ? getBasePackages() : toPackageNames(scanPackages);
+                for (String className : index.getClassNames(packages, toPackageNames(filterPackages))) {
+                    if (addClass(className, index.getAnnotations(className)) && components != null) {
+                        components.accept(className);
+                    }
+                }
+                log.debug("read {} classes from {}", this.classNames.size(), ComponentIndex.LOCATION);
+            } else if (getClassPath() == null) {
+                throw new ClassNotFoundException("unable to scan packages: " + classRoot + " is not a directory and has no "
+                        + ComponentIndex.LOCATION);
+            } else {
+                // 没有索引时回退为扫描class目录
+                try {
+                    if (components == null) {
+                        doScanPackage(scanPackages, filterPackages);
+                    } else {
+                        walkPackage(scanPackages, filterPackages, components);
+                    }
+                } catch (FileNotFoundException e) {
+                    throw new ClassNotFoundException();
+                } catch (IOException e) {
+                    throw new ClassNotFoundException(e.getMessage(), e);
+                }
+            }
+            this.packageIndex = new PackageIndex(this.classNames);
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.packages = ArrayUtils.isEmpty(scanPackages) ? rootPath : String.join(",", scanPackages);
+            event.classes = this.classNames.size();
+            event.components = this.componentNames.size();
+            event.commit();
+        }
+    }
+
     @Override
-    public Object[] getBeanWithAnnotation(Class<? extends Annotation> annotation) {
-        List<Object> list = new ArrayList<>(0);
-        for (Object value : this.getIocManager().getIoc().values()) {
-            if (value.getClass().isAnnotationPresent(annotation)) {
-                list.add(value);
+    public ClassWatcher watch() throws IOException {
+        if (getClassPath() == null) {
+            throw new FileNotFoundException("unable to watch " + getClassRoot() + ": not a class directory");
+        }
+        return ClassWatcher.start(this.getIocManager(), Paths.get(getClassPath()), Paths.get(rootPath),
+                getClassLoader(), ClassWatcher.QUIET_MILLIS);
+    }
+
+    /**
+     * 扫包的目录树与组件索引文件
+     */
+    @Override
+    protected Collection<Path> snapshotSources() {
+        List<Path> sources = new ArrayList<>();
+        String classPath = getClassPath();
+        if (classPath == null) {
+            // 从jar中启动时 记录jar文件本身
+            Path jar = toPath(getClassRoot());
+            if (jar != null) {
+                sources.add(jar);
             }
+            return sources;
+        }
+        String[] paths = convertPackageToPath(this.rootPath, scanPackages);
+        for (String path : ArrayUtils.isEmpty(paths) ? new String[]{rootPath} : paths) {
+            sources.add(Paths.get(path));
+        }
+        sources.add(Paths.get(classPath).resolve(ComponentIndex.LOCATION));
+        return sources;
+    }
+
+    /**
+     * appClass的代码来源: class根目录或jar文件
+     * 未指定appClass时为classpath中的第一个目录
+     */
+    private URL getClassRoot() {
+        if (this.appClass != null) {
+            CodeSource codeSource = this.appClass.getProtectionDomain().getCodeSource();
+            if (codeSource != null && codeSource.getLocation() != null) {
+                return codeSource.getLocation();
+            }
+        }
+        return this.getClass().getResource("/");
+    }
+
+    /**
+     * class根路径 类名相对于该路径
+     * @return 以路径分隔符结尾; 代码来源不是目录(如jar)时返回null
+     */
+    private String getClassPath() {
+        Path path = toPath(getClassRoot());
+        if (path == null || !Files.isDirectory(path)) {
+            return null;
+        }
+        return path.toString() + File.separator;
+    }
+
+    private static Path toPath(URL url) {
+        if (url == null || !"file".equals(url.getProtocol())) {
+            return null;
+        }
+        try {
+            return Paths.get(url.toURI());
+        } catch (URISyntaxException e) {
+            return null;
         }
-        return list.toArray();
+    }
+
+    @Override
+    public Object[] getBeanWithAnnotation(Class<? extends Annotation> annotation) {
+        return this.streamBeanWithAnnotation(annotation).toArray();
     }
 
     @Override
     public Map<Class<?>, Object> createBeanWithAnnotation(Class<? extends Annotation> annotation) throws AnnotationException, BeanInstantiationException {
         Map<Class<?>, Object> map = new HashMap<>(0);
-        Set<Class> classSet = this.getIocManager().getClassSet();
-        for (Class<?> clazz : classSet) {
-            if (clazz.isAnnotationPresent(annotation)) {
-                map.put(clazz, this.setBean(clazz));
-            }
+        for (Class<?> clazz : this.getClassWithAnnotation(annotation)) {
+            map.put(clazz, this.setBean(clazz));
         }
         return map;
     }
 
+    /**
+     * 不指定包时扫描的包: appClass所在的包; 未指定appClass时不限制包
+     */
+    private String[] getBasePackages() {
+        return this.appClass == null ? null : new String[]{this.appClass.getPackage().getName()};
+    }
+
+    /**
+     * 将包名转为完整包名 与扫包时的路径规则一致
+     * 指定了appClass时 包名相对于appClass所在的包
+     * @param packages 包名
+     */
+    private String[] toPackageNames(String[] packages) {
+        if (ArrayUtils.isEmpty(packages)) {
+            return packages;
+        }
+        String basePackage = this.appClass == null ? "" : this.appClass.getPackage().getName();
+        String[] packageNames = new String[packages.length];
+        for (int i = 0; i < packages.length; i++) {
+            packageNames[i] = basePackage.isEmpty() ? packages[i] : basePackage + "." + packages[i];
+        }
+        return packageNames;
+    }
+
     /**
      * 实现对项目目录的扫包
      * 1. 将包名转为文件路径
      * 2. 扫描指定的包下面所有的文件路径
      * 3. 将class路径加入到classNames中
+     * 4. 读取class文件中类上的注解 被组件注解修饰的类加入到componentNames中
      * @param scanPackages 指定的包名
      * @param filterPackages 过滤的包名
      */
@@ -97,16 +346,140 @@ public class AnnotationApplicationContext extends AbstractApplicationContext {
             scanPackages = new String[]{rootPath};
         }
         // 1. 扫描指定的包下面所有的文件路径
-        String[] array = FileUtils.listOnPath(rootPath, scanPackages, filterPackages, suffix);
+        String[] paths = FileUtils.listOnPath(rootPath, scanPackages, filterPackages, suffix);
 
         // 2. 将文件路径转化成class名称
-        array = convertPathToClassName(this.getClass().getResource("/").getPath().replaceAll("/", "\\" + File.separator), array);
+        String[] array = convertPathToClassName(getClassPath(), paths);
 
         if (ArrayUtils.isNotEmpty(array)) {
-            // 3. 将class添加到classNames
-            this.classNames.addAll(Arrays.asList(array));
+            // 3. 将class添加到classNames 不加载类 直接读取class文件中的注解
+            ClassMetadataReader reader = new ClassMetadataReader();
+            for (int i = 0; i < array.length; i++) {
+                addClass(reader, array[i], paths[i]);
+            }
         }
 //        this.classNames.forEach(vol -> log.debug("class name: {}", vol));
         log.debug("----------扫包完毕！----------");
     }
+
+    /**
+     * 边遍历目录边解析class文件 发现组件时立即回调, 无需等待整个目录遍历完成
+     * 包路径、过滤规则与doScanPackage一致
+     * @param scanPackages 指定的包名
+     * @param filterPackages 过滤的包名
+     * @param components 发现组件时的回调
+     */
+    private void walkPackage(String[] scanPackages, String[] filterPackages, Consumer<String> components) throws IOException {
+        log.debug("----------开始扫包----------");
+        scanPackages = convertPackageToPath(this.rootPath, scanPackages);
+        String[] filters = convertPackageToPath(this.rootPath, filterPackages);
+        if (ArrayUtils.isEmpty(scanPackages)) {
+            scanPackages = new String[]{rootPath};
+        }
+        String classPath = getClassPath();
+        String extension = "." + suffix;
+        ClassMetadataReader reader = new ClassMetadataReader();
+        for (String scanPackage : scanPackages) {
+            Path start = Paths.get(scanPackage);
+            if (!Files.exists(start)) {
+                throw new FileNotFoundException(scanPackage);
+            }
+            Files.walkFileTree(start, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                    return isFiltered(dir, filters) ? FileVisitResult.SKIP_SUBTREE : FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    String path = file.toString();
+                    if (path.endsWith(extension) && !isFiltered(file, filters)) {
+                        String className = convertPathToClassName(classPath, new String[]{path})[0];
+                        if (addClass(reader, className, path)) {
+                            components.accept(className);
+                        }
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        }
+        log.debug("----------扫包完毕！----------");
+    }
+
+    private static boolean isFiltered(Path path, String[] filters) {
+        if (ArrayUtils.isEmpty(filters)) {
+            return false;
+        }
+        String value = path.toString();
+        for (String filter : filters) {
+            if (value.startsWith(filter)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 记录扫描到的class 被组件注解修饰的类加入到componentNames中
+     * @param reader class文件解析器
+     * @param className 类名
+     * @param path class文件路径
+     * @return 是否需要加载并实例化
+     */
+    private boolean addClass(ClassMetadataReader reader, String className, String path) {
+        ClassMetadata metadata = readMetadata(reader, path);
+        if (metadata == null) {
+            // 无法解析的class文件 交由类加载器判断
+            this.classNames.add(className);
+            this.componentNames.add(className);
+            return true;
+        }
+        return addClass(className, metadata.getAnnotations());
+    }
+
+    /**
+     * 记录类及类上的注解 被组件注解修饰的类加入到componentNames中
+     * @param className 类名
+     * @param annotations 类上的注解类名
+     * @return 是否需要加载并实例化
+     */
+    private boolean addClass(String className, Set<String> annotations) {
+        this.classNames.add(className);
+        this.classAnnotations.put(className, annotations);
+        if (!Collections.disjoint(annotations, COMPONENT_ANNOTATIONS)) {
+            this.componentNames.add(className);
+            return true;
+        }
+        return false;
+    }
+
+    private ClassMetadata readMetadata(ClassMetadataReader reader, String path) {
+        try {
+            return reader.read(Paths.get(path));
+        } catch (IOException e) {
+            log.warn("unable to read class file: {}", path, e);
+            return null;
+        }
+    }
+
+    /**
+     * 扫包或读取组件索引的JFR事件
+     */
+    @Name("org.aron.context.PackageScan")
+    @Label("Package Scan")
+    @Category("Fly Context")
+    @StackTrace(false)
+    static final class PackageScanEvent extends Event {
+        @Label("Packages")
+        String packages;
+
+        @Label("Component Index")
+        boolean indexed;
+
+        @Label("Classes")
+        int classes;
+
+        @Label("Components")
+        int components;
+    }
 }
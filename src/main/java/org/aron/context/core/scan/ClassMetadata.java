@@ -0,0 +1,48 @@
+package org.aron.context.core.scan;
+
+import java.lang.reflect.Modifier;
+import java.util.Set;
+
+/**
+ * 从class文件字节中读取的类信息 无需加载类
+ **/
+public class ClassMetadata {
+
+    private final String className;
+
+    private final int accessFlags;
+
+    private final Set<String> annotations;
+
+    ClassMetadata(String className, int accessFlags, Set<String> annotations) {
+        this.className = className;
+        this.accessFlags = accessFlags;
+        this.annotations = annotations;
+    }
+
+    /**
+     * 类名 与 Class.getName() 一致
+     */
+    public String getClassName() {
+        return className;
+    }
+
+    /**
+     * 类上的运行时注解类名
+     */
+    public Set<String> getAnnotations() {
+        return annotations;
+    }
+
+    public boolean hasAnnotation(String annotation) {
+        return this.annotations.contains(annotation);
+    }
+
+    public boolean isInterface() {
+        return Modifier.isInterface(this.accessFlags);
+    }
+
+    public boolean isAbstract() {
+        return Modifier.isAbstract(this.accessFlags);
+    }
+}
@@ -0,0 +1,212 @@
+package org.aron.context.core.scan;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * 解析class文件的常量池与 RuntimeVisibleAnnotations 属性
+ * 1. 只读取类名、访问标记与类上的注解 无需加载、初始化类
+ * 2. 文件内容读入复用的ByteBuffer 非线程安全, 每个扫包线程使用各自的实例
+ **/
+public class ClassMetadataReader {
+
+    private static final int MAGIC = 0xCAFEBABE;
+
+    private static final String RUNTIME_VISIBLE_ANNOTATIONS = "RuntimeVisibleAnnotations";
+
+    private ByteBuffer buffer = ByteBuffer.allocate(8 * 1024);
+
+    /**
+     * 读取class文件
+     * @param path class文件路径
+     * @return 文件无法解析时返回null
+     */
+    public ClassMetadata read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            int size = (int) channel.size();
+            if (this.buffer.capacity() < size) {
+                this.buffer = ByteBuffer.allocate(Integer.highestOneBit(size) << 1);
+            }
+            this.buffer.clear().limit(size);
+            while (this.buffer.hasRemaining()) {
+                if (channel.read(this.buffer) < 0) {
+                    break;
+                }
+            }
+            this.buffer.flip();
+            return read(this.buffer);
+        }
+    }
+
+    /**
+     * 解析class文件字节
+     * @param buffer class文件内容
+     * @return 内容无法解析时返回null
+     */
+    public static ClassMetadata read(ByteBuffer buffer) {
+        try {
+            return parse(buffer);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static ClassMetadata parse(ByteBuffer buffer) {
+        if (buffer.getInt() != MAGIC) {
+            return null;
+        }
+        // minor_version major_version
+        skip(buffer, 4);
+        // 1. 常量池 只记录每一项的位置
+        int count = u2(buffer);
+        int[] offsets = new int[count];
+        for (int i = 1; i < count; i++) {
+            int tag = buffer.get() & 0xFF;
+            offsets[i] = buffer.position();
+            switch (tag) {
+                // Utf8
+                case 1:
+                    skip(buffer, u2(buffer));
+                    break;
+                // Integer Float FieldRef MethodRef InterfaceMethodRef NameAndType Dynamic InvokeDynamic
+                case 3: case 4: case 9: case 10: case 11: case 12: case 17: case 18:
+                    skip(buffer, 4);
+                    break;
+                // Long Double 占两项
+                case 5: case 6:
+                    skip(buffer, 8);
+                    i++;
+                    break;
+                // Class String MethodType Module Package
+                case 7: case 8: case 16: case 19: case 20:
+                    skip(buffer, 2);
+                    break;
+                // MethodHandle
+                case 15:
+                    skip(buffer, 3);
+                    break;
+                default:
+                    throw new IllegalArgumentException("unknown constant pool tag " + tag);
+            }
+        }
+        int accessFlags = u2(buffer);
+        int thisClass = u2(buffer);
+        String className = utf8(buffer, offsets, buffer.getShort(offsets[thisClass]) & 0xFFFF).replace('/', '.');
+        // super_class
+        skip(buffer, 2);
+        // interfaces
+        skip(buffer, u2(buffer) * 2);
+        // 2. 跳过字段与方法
+        skipMembers(buffer);
+        skipMembers(buffer);
+        // 3. 类属性
+        Set<String> annotations = Collections.emptySet();
+        int attributes = u2(buffer);
+        for (int i = 0; i < attributes; i++) {
+            int name = u2(buffer);
+            int length = buffer.getInt();
+            if (RUNTIME_VISIBLE_ANNOTATIONS.equals(utf8(buffer, offsets, name))) {
+                annotations = readAnnotations(buffer, offsets);
+            } else {
+                skip(buffer, length);
+            }
+        }
+        return new ClassMetadata(className, accessFlags, annotations);
+    }
+
+    private static Set<String> readAnnotations(ByteBuffer buffer, int[] offsets) {
+        int count = u2(buffer);
+        Set<String> annotations = new LinkedHashSet<>(count * 2);
+        for (int i = 0; i < count; i++) {
+            String descriptor = utf8(buffer, offsets, u2(buffer));
+            // Lorg/aron/Xxx; -> org.aron.Xxx
+            annotations.add(descriptor.substring(1, descriptor.length() - 1).replace('/', '.'));
+            skipElementValuePairs(buffer);
+        }
+        return Collections.unmodifiableSet(annotations);
+    }
+
+    private static void skipMembers(ByteBuffer buffer) {
+        int count = u2(buffer);
+        for (int i = 0; i < count; i++) {
+            // access_flags name_index descriptor_index
+            skip(buffer, 6);
+            skipAttributes(buffer);
+        }
+    }
+
+    private static void skipAttributes(ByteBuffer buffer) {
+        int count = u2(buffer);
+        for (int i = 0; i < count; i++) {
+            skip(buffer, 2);
+            skip(buffer, buffer.getInt());
+        }
+    }
+
+    private static void skipElementValuePairs(ByteBuffer buffer) {
+        int pairs = u2(buffer);
+        for (int i = 0; i < pairs; i++) {
+            skip(buffer, 2);
+            skipElementValue(buffer);
+        }
+    }
+
+    private static void skipElementValue(ByteBuffer buffer) {
+        int tag = buffer.get() & 0xFF;
+        switch (tag) {
+            case 'e':
+                skip(buffer, 4);
+                break;
+            case '@':
+                skip(buffer, 2);
+                skipElementValuePairs(buffer);
+                break;
+            case '[':
+                int count = u2(buffer);
+                for (int i = 0; i < count; i++) {
+                    skipElementValue(buffer);
+                }
+                break;
+            // B C D F I J S Z s c
+            default:
+                skip(buffer, 2);
+        }
+    }
+
+    /**
+     * 解码常量池中的 modified UTF-8 字符串
+     */
+    private static String utf8(ByteBuffer buffer, int[] offsets, int index) {
+        int offset = offsets[index];
+        int length = buffer.getShort(offset) & 0xFFFF;
+        char[] chars = new char[length];
+        int count = 0;
+        int end = offset + 2 + length;
+        for (int i = offset + 2; i < end; ) {
+            int b = buffer.get(i++) & 0xFF;
+            if (b < 0x80) {
+                chars[count++] = (char) b;
+            } else if ((b & 0xE0) == 0xC0) {
+                chars[count++] = (char) (((b & 0x1F) << 6) | (buffer.get(i++) & 0x3F));
+            } else {
+                chars[count++] = (char) (((b & 0x0F) << 12) | ((buffer.get(i++) & 0x3F) << 6) | (buffer.get(i++) & 0x3F));
+            }
+        }
+        return new String(chars, 0, count);
+    }
+
+    private static int u2(ByteBuffer buffer) {
+        return buffer.getShort() & 0xFFFF;
+    }
+
+    private static void skip(ByteBuffer buffer, int length) {
+        buffer.position(buffer.position() + length);
+    }
+}
@@ -0,0 +1,143 @@
+package org.aron.context.core.scan;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.ArrayUtils;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.BufferedReader;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 编译期生成的类索引(context-indexer)
+ * 索引文件格式: 类名=注解类名,注解类名
+ * 1. 只读取扫包的类所在的class根目录或jar中的 META-INF/fly.components, 其他jar中的索引不影响扫包
+ * 2. 索引记录该目录下编译的所有类及类上的运行时注解 与扫包的结果一致
+ * 3. 设置系统属性 fly.index.ignore=true 时忽略索引 回退为扫包
+ **/
+@Slf4j
+public class ComponentIndex {
+
+    public static final String LOCATION = "META-INF/fly.components";
+
+    public static final String IGNORE_PROPERTY = "fly.index.ignore";
+
+    /**
+     * 类名 -> 类上的注解类名
+     */
+    private final Map<String, Set<String>> entries = new LinkedHashMap<>();
+
+    private ComponentIndex() {
+    }
+
+    /**
+     * 读取class根目录或jar中的索引
+     * @param classRoot 类的代码来源: class根目录或jar文件
+     * @return 不存在索引文件或忽略索引时返回null
+     */
+    public static ComponentIndex load(URL classRoot) {
+        if (Boolean.getBoolean(IGNORE_PROPERTY) || classRoot == null) {
+            return null;
+        }
+        URL url;
+        try {
+            url = locate(classRoot);
+        } catch (MalformedURLException e) {
+            log.warn("unable to locate component index in {}", classRoot, e);
+            return null;
+        }
+        try {
+            ComponentIndex index = new ComponentIndex();
+            index.read(url);
+            log.debug("component index: {}", url);
+            return index;
+        } catch (FileNotFoundException | NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            log.warn("unable to read component index {}, fall back to package scanning", url, e);
+            return null;
+        }
+    }
+
+    /**
+     * 索引文件的位置 目录以/结尾, 否则视为jar文件
+     */
+    private static URL locate(URL classRoot) throws MalformedURLException {
+        String location = classRoot.toExternalForm();
+        if (location.endsWith("/")) {
+            return new URL(classRoot, LOCATION);
+        }
+        return new URL("jar:" + location + "!/" + LOCATION);
+    }
+
+    /**
+     * 获取指定包下的类名
+     * @param scanPackages 指定的包名 为空时返回所有类
+     * @param filterPackages 过滤的包名
+     */
+    public Set<String> getClassNames(String[] scanPackages, String[] filterPackages) {
+        Set<String> classNames = new LinkedHashSet<>();
+        for (String className : this.entries.keySet()) {
+            if ((ArrayUtils.isEmpty(scanPackages) || inPackages(className, scanPackages))
+                    && !inPackages(className, filterPackages)) {
+                classNames.add(className);
+            }
+        }
+        return classNames;
+    }
+
+    /**
+     * 获取类上的运行时注解类名
+     * @return 不在索引中时返回空集合
+     */
+    public Set<String> getAnnotations(String className) {
+        Set<String> annotations = this.entries.get(className);
+        return annotations == null ? Collections.emptySet() : annotations;
+    }
+
+    private void read(URL url) throws IOException {
+        URLConnection connection = url.openConnection();
+        // 不缓存jar文件 以免重新打包后读取到旧的索引
+        connection.setUseCaches(false);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                int eq = line.indexOf('=');
+                if (eq <= 0) {
+                    log.warn("illegal component index entry: {}", line);
+                    continue;
+                }
+                Set<String> annotations = new LinkedHashSet<>(Arrays.asList(StringUtils.split(line.substring(eq + 1), ',')));
+                this.entries.put(line.substring(0, eq), Collections.unmodifiableSet(annotations));
+            }
+        }
+    }
+
+    private static boolean inPackages(String className, String[] packages) {
+        if (ArrayUtils.isEmpty(packages)) {
+            return false;
+        }
+        for (String packageName : packages) {
+            if (className.startsWith(packageName + ".")) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,58 @@
+package org.aron.context.core.scan;
+
+import org.apache.commons.lang3.ClassUtils;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * 按类名排序的前缀索引
+ * 1. 扫包完成后构建 类名有序存放, 同一包下的类名相邻
+ * 2. 按包名查询时二分查找第一个匹配的类名 再顺序读取直到前缀不匹配, 耗时与结果数量成正比
+ * 3. 加载后的类缓存在与类名对应的位置上 重复查询无需再次加载
+ **/
+public class PackageIndex {
+
+    private final String[] classNames;
+
+    /**
+     * 已加载的类 与classNames一一对应
+     */
+    private final Class<?>[] classes;
+
+    public PackageIndex(Collection<String> classNames) {
+        this.classNames = classNames.toArray(new String[0]);
+        Arrays.sort(this.classNames);
+        this.classes = new Class<?>[this.classNames.length];
+    }
+
+    /**
+     * 获取类名以packageName开头的类 只加载不初始化
+     * @param packageName 包名
+     * @param classSet 查询结果
+     */
+    public void getClasses(String packageName, Set<Class<?>> classSet) throws ClassNotFoundException {
+        int index = Arrays.binarySearch(this.classNames, packageName);
+        for (int i = index < 0 ? -index - 1 : index; i < this.classNames.length; i++) {
+            if (!this.classNames[i].startsWith(packageName)) {
+                break;
+            }
+            classSet.add(load(i));
+        }
+    }
+
+    public int size() {
+        return this.classNames.length;
+    }
+
+    private Class<?> load(int index) throws ClassNotFoundException {
+        // Class对象可以安全发布 并发加载时最多重复查找一次
+        Class<?> clazz = this.classes[index];
+        if (clazz == null) {
+            clazz = ClassUtils.getClass(this.classNames[index], false);
+            this.classes[index] = clazz;
+        }
+        return clazz;
+    }
+}
@@ -0,0 +1,283 @@
+package org.aron.context.core.startup;
+
+import java.lang.management.ClassLoadingMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 容器启动过程记录
+ * 1. 阶段: 耗时、阶段内加载的类数量、执行阶段的线程分配的内存
+ * 2. bean: 实例化耗时与分配的内存(在实例化的线程上统计)、依赖注入耗时
+ * 3. 初始化完成后通过 toJson() 输出报告
+ * 4. 每次初始化开始时调用 reset() 报告只包含最近一次初始化
+ * 未开启时使用 NOOP: 所有方法直接返回 不读取时间、不分配对象
+ **/
+public class StartupRecorder {
+
+    /**
+     * 设置系统属性 fly.startup.record=true 时开启记录
+     */
+    public static final String ENABLE_PROPERTY = "fly.startup.record";
+
+    public static final StartupRecorder NOOP = new StartupRecorder(false);
+
+    private static final Phase NOOP_PHASE = new Phase(null, null);
+
+    private final boolean enabled;
+
+    /**
+     * 计时起点 reset()时重新开始
+     */
+    private volatile long started = System.nanoTime();
+
+    private final List<PhaseRecord> phases = new ArrayList<>();
+
+    /**
+     * 类名 -> bean记录
+     */
+    private final Map<String, BeanRecord> beans = new ConcurrentHashMap<>();
+
+    private StartupRecorder(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public static StartupRecorder create() {
+        return new StartupRecorder(true);
+    }
+
+    /**
+     * 按系统属性创建记录器
+     */
+    public static StartupRecorder fromSystemProperty() {
+        return Boolean.getBoolean(ENABLE_PROPERTY) ? create() : NOOP;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 重新开始记录 丢弃之前的阶段与bean记录
+     */
+    public void reset() {
+        if (!this.enabled) {
+            return;
+        }
+        synchronized (this.phases) {
+            this.phases.clear();
+        }
+        this.beans.clear();
+        this.started = System.nanoTime();
+    }
+
+    /**
+     * 开始一个阶段 配合try-with-resources使用
+     * @param name 阶段名称
+     */
+    public Phase phase(String name) {
+        return this.enabled ? new Phase(this, name) : NOOP_PHASE;
+    }
+
+    /**
+     * 获取计时起点
+     * @return 未开启时返回0
+     */
+    public long start() {
+        return this.enabled ? System.nanoTime() : 0L;
+    }
+
+    /**
+     * 获取当前线程已分配的内存 用于统计单个bean实例化分配的内存
+     * @return 未开启或jvm不支持时返回0
+     */
+    public long allocated() {
+        return this.enabled ? Metrics.allocatedBytes() : 0L;
+    }
+
+    /**
+     * 记录bean的实例化
+     * @param type bean类型
+     * @param start start()的返回值
+     * @param allocated allocated()的返回值
+     */
+    public void constructed(Class<?> type, long start, long allocated) {
+        if (this.enabled) {
+            BeanRecord record = record(type);
+            record.constructNanos.addAndGet(System.nanoTime() - start);
+            record.allocatedBytes.addAndGet(Math.max(0L, Metrics.allocatedBytes() - allocated));
+        }
+    }
+
+    /**
+     * 记录bean的依赖注入
+     * @param type bean类型
+     * @param start start()的返回值
+     */
+    public void injected(Class<?> type, long start) {
+        if (this.enabled) {
+            record(type).injectNanos.addAndGet(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * 输出json格式的报告 bean按实例化与注入的总耗时倒序
+     */
+    public String toJson() {
+        if (!this.enabled) {
+            return "{\"enabled\":false}";
+        }
+        StringBuilder json = new StringBuilder(256)
+                .append("{\"enabled\":true,\"elapsedMillis\":").append(millis(System.nanoTime() - this.started))
+                .append(",\"phases\":[");
+        synchronized (this.phases) {
+            for (int i = 0; i < this.phases.size(); i++) {
+                PhaseRecord phase = this.phases.get(i);
+                json.append(i == 0 ? "" : ",")
+                        .append("{\"name\":").append(quote(phase.name))
+                        .append(",\"millis\":").append(millis(phase.nanos))
+                        .append(",\"loadedClasses\":").append(phase.loadedClasses)
+                        .append(",\"allocatedBytes\":").append(phase.allocatedBytes)
+                        .append('}');
+            }
+        }
+        List<BeanRecord> records = new ArrayList<>(this.beans.values());
+        records.sort(Comparator.comparingLong(BeanRecord::totalNanos).reversed());
+        long allocated = 0;
+        json.append("],\"beans\":[");
+        for (int i = 0; i < records.size(); i++) {
+            BeanRecord record = records.get(i);
+            allocated += record.allocatedBytes.get();
+            json.append(i == 0 ? "" : ",")
+                    .append("{\"type\":").append(quote(record.type))
+                    .append(",\"constructMicros\":").append(record.constructNanos.get() / 1000)
+                    .append(",\"injectMicros\":").append(record.injectNanos.get() / 1000)
+                    .append(",\"allocatedBytes\":").append(record.allocatedBytes.get())
+                    .append('}');
+        }
+        return json.append("],\"beanCount\":").append(records.size())
+                .append(",\"beanAllocatedBytes\":").append(allocated)
+                .append('}').toString();
+    }
+
+    @Override
+    public String toString() {
+        return toJson();
+    }
+
+    private BeanRecord record(Class<?> type) {
+        return this.beans.computeIfAbsent(type.getName(), BeanRecord::new);
+    }
+
+    private static String millis(long nanos) {
+        return String.valueOf(nanos / 1000 / 1000.0);
+    }
+
+    private static String quote(String value) {
+        StringBuilder builder = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                builder.append('\\').append(c);
+            } else if (c < 0x20) {
+                builder.append(String.format("\\u%04x", (int) c));
+            } else {
+                builder.append(c);
+            }
+        }
+        return builder.append('"').toString();
+    }
+
+    /**
+     * 启动阶段 关闭时记录
+     */
+    public static final class Phase implements AutoCloseable {
+        private final StartupRecorder recorder;
+        private final String name;
+        private final long start;
+        private final long loadedClasses;
+        private final long allocated;
+
+        private Phase(StartupRecorder recorder, String name) {
+            this.recorder = recorder;
+            this.name = name;
+            this.start = recorder == null ? 0L : System.nanoTime();
+            this.loadedClasses = recorder == null ? 0L : Metrics.loadedClasses();
+            this.allocated = recorder == null ? 0L : Metrics.allocatedBytes();
+        }
+
+        @Override
+        public void close() {
+            if (this.recorder == null) {
+                return;
+            }
+            PhaseRecord record = new PhaseRecord(this.name, System.nanoTime() - this.start,
+                    Metrics.loadedClasses() - this.loadedClasses,
+                    Math.max(0L, Metrics.allocatedBytes() - this.allocated));
+            synchronized (this.recorder.phases) {
+                this.recorder.phases.add(record);
+            }
+        }
+    }
+
+    private static final class PhaseRecord {
+        private final String name;
+        private final long nanos;
+        private final long loadedClasses;
+        private final long allocatedBytes;
+
+        private PhaseRecord(String name, long nanos, long loadedClasses, long allocatedBytes) {
+            this.name = name;
+            this.nanos = nanos;
+            this.loadedClasses = loadedClasses;
+            this.allocatedBytes = allocatedBytes;
+        }
+    }
+
+    private static final class BeanRecord {
+        private final String type;
+        private final AtomicLong constructNanos = new AtomicLong();
+        private final AtomicLong injectNanos = new AtomicLong();
+        private final AtomicLong allocatedBytes = new AtomicLong();
+
+        private BeanRecord(String type) {
+            this.type = type;
+        }
+
+        private long totalNanos() {
+            return this.constructNanos.get() + this.injectNanos.get();
+        }
+    }
+
+    /**
+     * jvm指标 只在开启记录时才初始化
+     */
+    private static final class Metrics {
+        private static final ClassLoadingMXBean CLASS_LOADING = ManagementFactory.getClassLoadingMXBean();
+        private static final com.sun.management.ThreadMXBean THREADS = threads();
+
+        private static com.sun.management.ThreadMXBean threads() {
+            ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+            if (bean instanceof com.sun.management.ThreadMXBean) {
+                com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+                if (threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled()) {
+                    return threads;
+                }
+            }
+            return null;
+        }
+
+        private static long loadedClasses() {
+            return CLASS_LOADING.getTotalLoadedClassCount();
+        }
+
+        private static long allocatedBytes() {
+            return THREADS == null ? 0L : THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+    }
+}
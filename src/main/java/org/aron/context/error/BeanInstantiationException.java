@@ -10,6 +10,11 @@ public class BeanInstantiationException extends Exception {
         this.message = message;
     }
 
+    public BeanInstantiationException(String message, Throwable cause) {
+        super(cause);
+        this.message = message;
+    }
+
     @Override
     public String getMessage() {
         return message;
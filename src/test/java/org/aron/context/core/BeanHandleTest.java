@@ -0,0 +1,59 @@
+package org.aron.context.core;
+
+import org.aron.fixture.handle.Target;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * 句柄与beanName绑定 bean被移除并重新注册后读取到当前的bean
+ */
+public class BeanHandleTest {
+
+    private IocManager iocManager;
+
+    @Before
+    public void setUp() throws Exception {
+        this.iocManager = IocManager.getInstance(Collections.emptySet());
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        this.iocManager.removeBeans(this.iocManager.getBeansOfType(Target.class));
+    }
+
+    @Test
+    public void resolvesReplacedBean() throws Exception {
+        Target first = new Target();
+        this.iocManager.setBean(Target.class, first, true);
+        BeanHandle<Target> handle = this.iocManager.getBeanHandle(Target.class);
+        assertNotNull(handle);
+        assertSame(first, handle.get());
+
+        this.iocManager.removeBean(first);
+        assertNull(handle.get());
+
+        Target second = new Target();
+        this.iocManager.setBean(Target.class, second, true);
+        assertSame(second, handle.get());
+        assertEquals(handle.getId(), this.iocManager.getBeanHandle(Target.class).getId());
+    }
+
+    @Test
+    public void resolvesBeanRegisteredAfterHandle() throws Exception {
+        BeanHandle<Target> handle = this.iocManager.getBeanHandle("handleTarget");
+        assertNull(handle.get());
+        assertNull(this.iocManager.getBeanHandle(Target.class));
+
+        Target target = new Target();
+        this.iocManager.setBean(Target.class, target, true);
+        assertSame(target, handle.get());
+    }
+}
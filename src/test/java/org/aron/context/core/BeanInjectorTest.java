@@ -0,0 +1,79 @@
+package org.aron.context.core;
+
+import org.aron.context.annotation.component.Autowired;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * 运行时注册bean的增量注入: 只注入新bean的字段 与等待该bean的字段
+ */
+public class BeanInjectorTest {
+
+    public interface Api {}
+
+    public static class Impl implements Api {}
+
+    public static class OtherImpl implements Api {}
+
+    public static class Holder {
+        @Autowired
+        private Api api;
+        @Autowired
+        private Impl impl;
+    }
+
+    private IocManager iocManager;
+
+    @Before
+    public void setUp() throws Exception {
+        this.iocManager = IocManager.getInstance(Collections.emptySet());
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        this.iocManager.removeBeans(this.iocManager.getBeansOfType(Holder.class));
+        this.iocManager.removeBeans(this.iocManager.getBeansOfType(Api.class));
+    }
+
+    @Test
+    public void injectsExistingDependencies() throws Exception {
+        Impl impl = new Impl();
+        this.iocManager.setBean(null, impl, false);
+        Holder holder = new Holder();
+        this.iocManager.setBean(null, holder, false);
+        assertSame(impl, holder.api);
+        assertSame(impl, holder.impl);
+    }
+
+    @Test
+    public void fillsPendingFieldsWhenDependencyIsRegistered() throws Exception {
+        Holder holder = new Holder();
+        this.iocManager.setBean(null, holder, false);
+        assertNull(holder.api);
+        assertNull(holder.impl);
+        Impl impl = new Impl();
+        this.iocManager.setBean(null, impl, false);
+        // 按接口与按实现类等待的字段都被填充
+        assertSame(impl, holder.api);
+        assertSame(impl, holder.impl);
+        assertEquals(1, this.iocManager.getBeansOfType(Api.class).size());
+    }
+
+    @Test
+    public void filledFieldsAreNotOverwritten() throws Exception {
+        Impl impl = new Impl();
+        this.iocManager.setBean(null, impl, false);
+        Holder holder = new Holder();
+        this.iocManager.setBean(null, holder, false);
+        this.iocManager.setBean(null, new OtherImpl(), false);
+        assertSame(impl, holder.api);
+        assertEquals(2, this.iocManager.getBeansOfType(Api.class).size());
+    }
+}
@@ -0,0 +1,120 @@
+package org.aron.context.core;
+
+import org.aron.context.error.AnnotationException;
+import org.aron.context.error.BeanInstantiationException;
+import org.aron.fixture.factory.CycleConfig;
+import org.aron.fixture.factory.DuplicateConfig;
+import org.aron.fixture.factory.LevelConfig;
+import org.aron.fixture.factory.PrototypeConfig;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * IocManager.setBeans 按参数依赖分层执行@Bean方法
+ */
+public class BeanMethodTest {
+
+    private IocManager iocManager;
+
+    @Before
+    public void setUp() throws Exception {
+        LevelConfig.ORDER.clear();
+        PrototypeConfig.CREATED.set(0);
+        DuplicateConfig.CALLS.set(0);
+        this.iocManager = IocManager.getInstance(Collections.emptySet());
+    }
+
+    @After
+    public void tearDown() {
+        this.iocManager.setParallelism(1);
+        // getAllBean会为prototype bean创建新实例 直接移除容器中的占位对象
+        List<Object> beans = new ArrayList<>();
+        for (Object bean : this.iocManager.getIoc().values()) {
+            if (IocManager.typeOf(bean).getPackage() == LevelConfig.class.getPackage()) {
+                beans.add(bean);
+            }
+        }
+        this.iocManager.removeBeans(beans);
+    }
+
+    @Test
+    public void methodsRunInDependencyOrder() throws Exception {
+        this.iocManager.setParallelism(4);
+        setBeans(new LevelConfig());
+        assertEquals(Arrays.asList("leaf", "middle", "top"), LevelConfig.ORDER);
+        LevelConfig.LevelTop top = this.iocManager.getBean(LevelConfig.LevelTop.class);
+        LevelConfig.LevelMiddle middle = this.iocManager.getBean(LevelConfig.LevelMiddle.class);
+        LevelConfig.LevelLeaf leaf = this.iocManager.getBean(LevelConfig.LevelLeaf.class);
+        assertSame(middle, top.middle);
+        assertSame(leaf, top.leaf);
+        assertSame(leaf, middle.leaf);
+    }
+
+    @Test
+    public void cycleIsDescribed() throws Exception {
+        try {
+            setBeans(new CycleConfig());
+            fail("circular dependency between @Bean methods is not reported");
+        } catch (AnnotationException e) {
+            String prefix = "circular dependency between @Bean methods: ";
+            assertTrue(e.getMessage(), e.getMessage().startsWith(prefix));
+            // 环的路径首尾相同 与DependencyGraph.describe的格式一致
+            List<String> cycle = Arrays.asList(e.getMessage().substring(prefix.length()).split(" -> "));
+            assertEquals(e.getMessage(), 3, cycle.size());
+            assertEquals(cycle.get(0), cycle.get(2));
+            String name = CycleConfig.class.getName();
+            assertEquals(new HashSet<>(Arrays.asList(name + ".first()", name + ".second()")), new HashSet<>(cycle));
+            assertEquals(e.getMessage(), prefix + DependencyGraph.describe(cycle));
+        }
+        assertNull(this.iocManager.getBean(CycleConfig.CycleA.class));
+        assertNull(this.iocManager.getBean(CycleConfig.CycleB.class));
+    }
+
+    @Test
+    public void prototypeMethodIsCalledPerGetBean() throws Exception {
+        setBeans(new PrototypeConfig());
+        // prototype方法不在执行配置时调用
+        assertEquals(0, PrototypeConfig.CREATED.get());
+        assertTrue(this.iocManager.lookup(PrototypeConfig.Session.class) instanceof PrototypeBean);
+        PrototypeConfig.Session first = this.iocManager.getBean(PrototypeConfig.Session.class);
+        PrototypeConfig.Session second = this.iocManager.getBean(PrototypeConfig.Session.class);
+        assertNotSame(first, second);
+        assertSame(this.iocManager.getBean(PrototypeConfig.Clock.class), first.clock);
+        assertSame(first.clock, second.clock);
+        assertEquals(2, PrototypeConfig.CREATED.get());
+    }
+
+    @Test
+    public void duplicateBeanNamesAreRejected() throws Exception {
+        try {
+            setBeans(new DuplicateConfig());
+            fail("duplicate bean name is not rejected");
+        } catch (BeanInstantiationException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("bean name[duplicate]"));
+        }
+        // 检查在调用任何方法之前进行
+        assertEquals(0, DuplicateConfig.CALLS.get());
+        assertNull(this.iocManager.getBean("duplicate"));
+    }
+
+    private void setBeans(Object configuration) throws AnnotationException, BeanInstantiationException {
+        BeanMethod[] methods = BeanMethod.of(configuration.getClass());
+        Object[] targets = new Object[methods.length];
+        Arrays.fill(targets, configuration);
+        this.iocManager.setBeans(methods, targets);
+    }
+}
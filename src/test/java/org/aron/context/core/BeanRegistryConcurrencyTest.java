@@ -0,0 +1,190 @@
+package org.aron.context.core;
+
+import lombok.extern.slf4j.Slf4j;
+import org.aron.context.annotation.component.Autowired;
+import org.junit.Test;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 并发注册、移除、查找bean 校验注册表与类型索引的一致性 并输出竞争下的吞吐量
+ */
+@Slf4j
+public class BeanRegistryConcurrencyTest {
+
+    private static final int THREADS = Math.max(4, Runtime.getRuntime().availableProcessors());
+
+    private static final int OPERATIONS = 20_000;
+
+    private interface Target {}
+
+    private static class TargetBean implements Target, Serializable {}
+
+    public static class StressConsumer {
+        @Autowired
+        private StressDependency dependency;
+    }
+
+    public static class StressDependency {
+        @Autowired
+        private StressConsumer consumer;
+    }
+
+    /**
+     * 所有实例按equals相等
+     */
+    private static class EqualBean {
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof EqualBean;
+        }
+
+        @Override
+        public int hashCode() {
+            return 1;
+        }
+    }
+
+    @Test
+    public void putIfAbsentHasSingleWinner() throws Exception {
+        BeanRegistry registry = new BeanRegistry();
+        Set<Object> winners = ConcurrentHashMap.newKeySet();
+        run(THREADS, i -> {
+            TargetBean bean = new TargetBean();
+            if (registry.putIfAbsent("target", bean) == null) {
+                winners.add(bean);
+            }
+        });
+        assertEquals(1, winners.size());
+        Object winner = winners.iterator().next();
+        assertSame(winner, registry.get("target"));
+        assertSame(winner, registry.getByExactType(TargetBean.class));
+        assertSame(winner, registry.getByType(Target.class));
+        assertEquals(1, registry.getAllByType(Target.class).size());
+    }
+
+    @Test
+    public void indexesStayConsistentUnderContention() throws Exception {
+        BeanRegistry registry = new BeanRegistry();
+        AtomicInteger reads = new AtomicInteger();
+        long start = System.nanoTime();
+        run(THREADS, i -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int n = 0; n < OPERATIONS; n++) {
+                String beanName = "bean" + random.nextInt(256);
+                switch (random.nextInt(4)) {
+                    case 0:
+                        registry.put(beanName, new TargetBean());
+                        break;
+                    case 1:
+                        registry.remove(beanName);
+                        break;
+                    default:
+                        registry.getByType(Target.class);
+                        registry.get(beanName);
+                        reads.incrementAndGet();
+                }
+            }
+        });
+        long cost = System.nanoTime() - start;
+        log.info("threads: {}, operations: {}, reads: {}, {} ops/ms",
+                THREADS, THREADS * OPERATIONS, reads.get(), THREADS * OPERATIONS * 1_000_000L / cost);
+        // 索引中的bean与注册表一一对应
+        int size = registry.getBeans().size();
+        assertEquals(size, registry.getAllByType(Target.class).size());
+        assertEquals(size, registry.getAllByType(Serializable.class).size());
+        registry.getBeans().forEach((beanName, bean) -> {
+            assertTrue(registry.getAllByType(TargetBean.class).contains(bean));
+            assertEquals(Collections.singleton(beanName), registry.getNames(bean));
+        });
+    }
+
+    @Test
+    public void concurrentSetBeanWiresEachOther() throws Exception {
+        IocManager iocManager = IocManager.getInstance(Collections.emptySet());
+        for (int n = 0; n < 200; n++) {
+            StressConsumer consumer = new StressConsumer();
+            StressDependency dependency = new StressDependency();
+            run(2, i -> iocManager.setBean(null, i == 0 ? consumer : dependency, false));
+            // 无论注册顺序如何 等待注入的字段都不会被遗漏
+            assertSame(dependency, consumer.dependency);
+            assertSame(consumer, dependency.consumer);
+            assertSame(consumer, iocManager.getBean(StressConsumer.class));
+            iocManager.removeBean(consumer);
+            iocManager.removeBean(dependency);
+        }
+    }
+
+    @Test
+    public void equalInstancesAreIndexedByIdentity() {
+        BeanRegistry registry = new BeanRegistry();
+        EqualBean first = new EqualBean();
+        EqualBean second = new EqualBean();
+        registry.put("first", first);
+        registry.put("firstAlias", first);
+        registry.put("second", second);
+        registry.put("secondAlias", second);
+        assertEquals(new HashSet<>(Arrays.asList("first", "firstAlias")), registry.getNames(first));
+        assertEquals(new HashSet<>(Arrays.asList("second", "secondAlias")), registry.getNames(second));
+        // 与IocManager.removeBeans一致 按实例对应的beanName移除
+        for (String beanName : registry.getNames(first)) {
+            assertSame(first, registry.remove(beanName, first));
+        }
+        assertTrue(registry.getNames(first).isEmpty());
+        assertEquals(new HashSet<>(Arrays.asList("second", "secondAlias")), registry.getNames(second));
+        assertSame(second, registry.get("second"));
+        assertSame(second, registry.get("secondAlias"));
+        assertEquals(2, registry.getBeans().size());
+        for (Object bean : registry.getAllByType(EqualBean.class)) {
+            assertSame(second, bean);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Task {
+        void run(int index) throws Exception;
+    }
+
+    /**
+     * 多个线程同时开始执行任务 任务异常时测试失败
+     */
+    private static void run(int threads, Task task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch ready = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>(threads);
+        try {
+            for (int i = 0; i < threads; i++) {
+                int index = i;
+                futures.add(executor.submit(() -> {
+                    ready.await();
+                    task.run(index);
+                    return null;
+                }));
+            }
+            ready.countDown();
+            for (Future<?> future : futures) {
+                future.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
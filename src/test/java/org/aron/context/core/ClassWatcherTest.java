@@ -0,0 +1,101 @@
+package org.aron.context.core;
+
+import org.aron.context.core.impl.AnnotationApplicationContext;
+import org.aron.fixture.reload.ReloadApp;
+import org.aron.fixture.reload.api.Greeter;
+import org.aron.fixture.reload.impl.GreeterImpl;
+import org.aron.fixture.reload.use.GreeterUser;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.tools.ToolProvider;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+/**
+ * 热替换修改过的类: 替换受影响的bean 并重新注入依赖它们的bean
+ */
+public class ClassWatcherTest {
+
+    private static final String SOURCE = "package org.aron.fixture.reload.impl;\n"
+            + "@org.aron.context.annotation.component.Component\n"
+            + "public class GreeterImpl implements org.aron.fixture.reload.api.Greeter {\n"
+            + "    public String greet() {\n"
+            + "        return Prefix.value() + \"2\";\n"
+            + "    }\n"
+            + "}\n";
+
+    private AnnotationApplicationContext context;
+
+    private Path classFile;
+
+    private byte[] original;
+
+    @Before
+    public void setUp() throws Exception {
+        this.classFile = Paths.get(GreeterImpl.class.getResource("GreeterImpl.class").toURI());
+        this.original = Files.readAllBytes(this.classFile);
+        GreeterImpl.destroyed = 0;
+        this.context = new AnnotationApplicationContext(ReloadApp.class);
+        this.context.init();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        this.context.removeBeans(this.context.getAllBean());
+        // 还原class文件 以免影响之后的测试与增量编译
+        Files.write(this.classFile, this.original);
+    }
+
+    @Test
+    public void reloadsChangedClass() throws Exception {
+        GreeterUser user = this.context.getBean(GreeterUser.class);
+        Object direct = this.context.getBean("DirectUser");
+        assertEquals("v1", user.getGreeter().greet());
+
+        try (ClassWatcher watcher = this.context.watch()) {
+            Path output = compile();
+            Files.copy(output.resolve("org/aron/fixture/reload/impl/GreeterImpl.class"), this.classFile,
+                    StandardCopyOption.REPLACE_EXISTING);
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (watcher.getReloads() == 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+            }
+            assertEquals(1, watcher.getReloads());
+        }
+
+        Greeter greeter = this.context.getBean(Greeter.class);
+        // 同一个包中包级私有的类一并重新加载 不抛出IllegalAccessError
+        assertEquals("v2", greeter.greet());
+        assertNotSame(GreeterImpl.class, greeter.getClass());
+        assertEquals(1, GreeterImpl.destroyed);
+        // 依赖接口的bean保留原实例 重新注入新的bean
+        assertSame(user, this.context.getBean(GreeterUser.class));
+        assertSame(greeter, user.getGreeter());
+        // 依赖被替换类本身的bean 随所在的包重新加载
+        Object reloaded = this.context.getBean("DirectUser");
+        assertNotSame(direct, reloaded);
+        assertNotSame(direct.getClass(), reloaded.getClass());
+        assertSame(greeter, reloaded.getClass().getMethod("getGreeter").invoke(reloaded));
+    }
+
+    /**
+     * 编译新版本的GreeterImpl 到临时目录
+     */
+    private static Path compile() throws Exception {
+        Path source = Files.createTempDirectory("reload").resolve("GreeterImpl.java");
+        Files.write(source, SOURCE.getBytes(StandardCharsets.UTF_8));
+        Path output = Files.createTempDirectory("reload");
+        assertEquals(0, ToolProvider.getSystemJavaCompiler().run(null, null, null,
+                "-cp", System.getProperty("java.class.path"), "-d", output.toString(), source.toString()));
+        return output;
+    }
+}
@@ -0,0 +1,148 @@
+package org.aron.context.core;
+
+import org.aron.context.core.impl.AnnotationApplicationContext;
+import org.aron.fixture.snapshot.SnapshotApp;
+import org.aron.fixture.snapshot.SnapshotDao;
+import org.aron.fixture.snapshot.SnapshotService;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.tools.ToolProvider;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 快照的复用与失效: 扫描的目录中类或包发生变化时 重新扫包
+ */
+public class ContainerSnapshotTest {
+
+    private Path snapshotFile;
+
+    private Path packageDirectory;
+
+    private final List<Path> created = new ArrayList<>();
+
+    private AnnotationApplicationContext context;
+
+    @Before
+    public void setUp() throws Exception {
+        this.snapshotFile = Files.createTempDirectory("snapshot").resolve("fly.snapshot");
+        this.packageDirectory = Paths.get(SnapshotApp.class.getResource("SnapshotApp.class").toURI()).getParent();
+        // 首次启动扫包并写入快照
+        assertFalse(init());
+        assertTrue(Files.isRegularFile(this.snapshotFile));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        clear();
+        Collections.reverse(this.created);
+        for (Path path : this.created) {
+            try (Stream<Path> paths = Files.walk(path)) {
+                paths.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+            }
+        }
+        Files.deleteIfExists(this.snapshotFile);
+        Files.deleteIfExists(this.snapshotFile.getParent());
+    }
+
+    @Test
+    public void unchangedClassesReuseSnapshot() throws Exception {
+        assertTrue(init());
+        SnapshotService service = this.context.getBean(SnapshotService.class);
+        assertNotNull(service);
+        assertSame(this.context.getBean(SnapshotDao.class), service.getDao());
+    }
+
+    @Test
+    public void modifiedClassInvalidatesSnapshot() throws Exception {
+        Path classFile = this.packageDirectory.resolve("SnapshotDao.class");
+        FileTime modified = Files.getLastModifiedTime(classFile);
+        Files.setLastModifiedTime(classFile, FileTime.fromMillis(modified.toMillis() + 5000));
+        try {
+            assertFalse(init());
+        } finally {
+            Files.setLastModifiedTime(classFile, modified);
+        }
+    }
+
+    @Test
+    public void addedClassInvalidatesSnapshot() throws Exception {
+        compile("org.aron.fixture.snapshot.added", "Added");
+        assertFalse(init());
+        assertEquals(1, this.context.getClassByPackage("org.aron.fixture.snapshot.added").size());
+        // 新的快照包含新增的类
+        assertTrue(init());
+        assertEquals(1, this.context.getClassByPackage("org.aron.fixture.snapshot.added").size());
+    }
+
+    @Test
+    public void addedPackageInvalidatesSnapshot() throws Exception {
+        // 新建的包位于没有class文件的目录下
+        Path parent = mkdir(this.packageDirectory.resolve("empty"));
+        Files.setLastModifiedTime(parent, FileTime.fromMillis(System.currentTimeMillis() - 10_000));
+        assertFalse(init());
+        assertTrue(init());
+        mkdir(parent.resolve("nested"));
+        assertFalse(init());
+    }
+
+    @Test
+    public void corruptSnapshotFallsBackToScanning() throws Exception {
+        Files.write(this.snapshotFile, new byte[]{1, 2, 3});
+        assertFalse(init());
+        assertNotNull(this.context.getBean(SnapshotService.class));
+    }
+
+    /**
+     * 清空容器后重新启动
+     * @return 是否复用了快照
+     */
+    private boolean init() throws Exception {
+        clear();
+        this.context = new AnnotationApplicationContext(SnapshotApp.class);
+        this.context.setSnapshotFile(this.snapshotFile);
+        this.context.setStartupRecording(true);
+        this.context.init();
+        return !this.context.getStartupRecorder().toJson().contains("\"scan\"");
+    }
+
+    private void clear() {
+        if (this.context != null) {
+            this.context.removeBeans(this.context.getAllBean());
+            this.context = null;
+        }
+    }
+
+    private Path mkdir(Path directory) throws Exception {
+        this.created.add(Files.createDirectory(directory));
+        return directory;
+    }
+
+    /**
+     * 在测试类目录下编译一个新的类
+     */
+    private void compile(String packageName, String simpleName) throws Exception {
+        Path source = Files.createTempDirectory("source").resolve(simpleName + ".java");
+        Files.write(source, ("package " + packageName + ";\npublic class " + simpleName + " {\n}\n").getBytes());
+        Path classRoot = Paths.get(SnapshotApp.class.getResource("/").toURI());
+        this.created.add(classRoot.resolve(packageName.replace('.', '/')));
+        this.created.add(source.getParent());
+        assertEquals(0, ToolProvider.getSystemJavaCompiler().run(null, null, null,
+                "-d", classRoot.toString(), source.toString()));
+    }
+}
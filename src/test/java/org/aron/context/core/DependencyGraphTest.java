@@ -0,0 +1,134 @@
+package org.aron.context.core;
+
+import org.aron.context.annotation.component.Autowired;
+import org.aron.context.core.impl.AnnotationApplicationContext;
+import org.aron.context.error.AnnotationException;
+import org.aron.fixture.cycle.prototype.PrototypeA;
+import org.aron.fixture.cycle.self.SelfReference;
+import org.aron.fixture.cycle.singleton.SingletonA;
+import org.aron.fixture.cycle.singleton.SingletonB;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * 依赖关系分层与循环依赖检测
+ * 容器级别的依赖环位于org.aron.fixture.cycle的子包中 每个子包单独扫描
+ */
+public class DependencyGraphTest {
+
+    public static class Leaf {}
+
+    public static class Middle {
+        @Autowired
+        private Leaf leaf;
+    }
+
+    public static class Top {
+        @Autowired
+        private Middle middle;
+        @Autowired
+        private Leaf leaf;
+    }
+
+    public static class Self {
+        @Autowired
+        private Self self;
+    }
+
+    public static class First {
+        @Autowired
+        private Second second;
+    }
+
+    public static class Second {
+        @Autowired
+        private First first;
+    }
+
+    public static class Dependent {
+        @Autowired
+        private First first;
+    }
+
+    @Test
+    public void levelsFollowDependencies() {
+        DependencyGraph graph = DependencyGraph.build(Arrays.asList(Top.class, Middle.class, Leaf.class));
+        assertEquals(Arrays.asList(
+                Collections.singletonList(Leaf.class),
+                Collections.singletonList(Middle.class),
+                Collections.singletonList(Top.class)), graph.getLevels());
+        assertTrue(graph.getCycles().isEmpty());
+    }
+
+    @Test
+    public void selfDependencyIsCycle() {
+        DependencyGraph graph = DependencyGraph.build(Arrays.asList(Self.class, Leaf.class));
+        // 环的路径首尾相同 A -> A
+        assertEquals(Collections.singletonList(Arrays.asList(Self.class, Self.class)), graph.getCycles());
+        assertTrue(graph.getCycles(Leaf.class::equals).isEmpty());
+    }
+
+    @Test
+    public void cycleSharesLevel() {
+        DependencyGraph graph = DependencyGraph.build(Arrays.asList(Dependent.class, First.class, Second.class));
+        List<List<Class<?>>> cycles = graph.getCycles();
+        assertEquals(1, cycles.size());
+        List<Class<?>> cycle = cycles.get(0);
+        assertEquals(3, cycle.size());
+        assertSame(cycle.get(0), cycle.get(2));
+        assertEquals(new HashSet<>(Arrays.asList(First.class, Second.class)), new HashSet<>(cycle));
+        // 环上的bean在同一层 依赖环的bean排在环之后
+        assertEquals(2, graph.getLevels().size());
+        assertEquals(new HashSet<>(Arrays.asList(First.class, Second.class)), new HashSet<>(graph.getLevels().get(0)));
+        assertEquals(Collections.singletonList(Dependent.class), graph.getLevels().get(1));
+    }
+
+    @Test
+    public void prototypeSelfDependencyIsRejected() throws Exception {
+        assertRejected(SelfReference.class, "SelfReference -> " + SelfReference.class.getName());
+    }
+
+    @Test
+    public void prototypeCycleIsRejected() throws Exception {
+        assertRejected(PrototypeA.class, "PrototypeB -> " + PrototypeA.class.getName());
+    }
+
+    @Test
+    public void singletonCycleUsesEarlyReferences() throws Exception {
+        AnnotationApplicationContext context = new AnnotationApplicationContext(SingletonA.class);
+        try {
+            context.init();
+            SingletonA a = context.getBean(SingletonA.class);
+            SingletonB b = context.getBean(SingletonB.class);
+            assertSame(b, a.getB());
+            assertSame(a, b.getA());
+            assertSame(a, a.getSelf());
+        } finally {
+            context.removeBeans(context.getAllBean());
+        }
+    }
+
+    /**
+     * prototype作用域的依赖环 初始化时报错 而不是在获取实例时栈溢出
+     */
+    private static void assertRejected(Class<?> appClass, String cycle) throws Exception {
+        AnnotationApplicationContext context = new AnnotationApplicationContext(appClass);
+        try {
+            context.init();
+            fail("circular dependency between prototype beans is not reported");
+        } catch (AnnotationException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains(cycle));
+        } finally {
+            context.removeBeans(context.getAllBean());
+        }
+    }
+}
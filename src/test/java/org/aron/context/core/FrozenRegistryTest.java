@@ -0,0 +1,96 @@
+package org.aron.context.core;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 冻结后的注册表 查找结果与冻结前一致 不随之后对原注册表的写入改变
+ */
+public class FrozenRegistryTest {
+
+    private static final int BEANS = 1000;
+
+    private interface Api {}
+
+    private static class Base implements Api {}
+
+    private static class Child extends Base implements Serializable {}
+
+    @Deprecated
+    private static class Marked {}
+
+    private static final List<Class<?>> TYPES = Arrays.asList(
+            Object.class, Api.class, Base.class, Child.class, Serializable.class, Marked.class, String.class);
+
+    private BeanRegistry registry;
+
+    private List<String> names;
+
+    @Before
+    public void setUp() {
+        this.registry = new BeanRegistry();
+        this.names = new ArrayList<>();
+        for (int i = 0; i < BEANS; i++) {
+            String beanName = "bean" + i;
+            Object bean = i % 3 == 0 ? new Base() : i % 3 == 1 ? new Child() : new Marked();
+            this.registry.put(beanName, bean);
+            this.names.add(beanName);
+        }
+        // 已分配id但未注册的beanName
+        this.registry.idOf("pending");
+    }
+
+    @Test
+    public void lookupsMatchSource() {
+        FrozenRegistry frozen = this.registry.freeze();
+        assertTrue(frozen.isFrozen());
+        assertEquals(this.registry.getBeans(), frozen.getBeans());
+        for (String beanName : this.names) {
+            Object bean = this.registry.get(beanName);
+            assertTrue(frozen.contains(beanName));
+            assertSame(bean, frozen.get(beanName));
+            assertEquals(this.registry.idOf(beanName), frozen.idOf(beanName));
+            assertSame(bean, frozen.slot(frozen.idOf(beanName)));
+            assertEquals(this.registry.getNames(bean), frozen.getNames(bean));
+        }
+        for (Class<?> type : TYPES) {
+            assertSame(this.registry.getByExactType(type), frozen.getByExactType(type));
+            assertSame(this.registry.getByType(type), frozen.getByType(type));
+            assertEquals(new HashSet<>(this.registry.getAllByType(type)), new HashSet<>(frozen.getAllByType(type)));
+        }
+        assertEquals(new HashSet<>(this.registry.getAllByAnnotation(Deprecated.class)),
+                new HashSet<>(frozen.getAllByAnnotation(Deprecated.class)));
+        assertEquals(BEANS / 3, frozen.getAllByAnnotation(Deprecated.class).size());
+        assertTrue(frozen.idOf("pending") >= 0);
+        assertNull(frozen.slot(frozen.idOf("pending")));
+        assertNull(frozen.get("missing"));
+        assertNull(frozen.getByType(String.class));
+    }
+
+    @Test
+    public void ignoresLaterWrites() {
+        FrozenRegistry frozen = this.registry.freeze();
+        Object bean = frozen.get("bean0");
+        int children = frozen.getAllByType(Child.class).size();
+        this.registry.put("bean0", new Base());
+        this.registry.put("other", new Child());
+        this.registry.remove("bean1");
+        assertSame(bean, frozen.get("bean0"));
+        assertSame(bean, frozen.slot(frozen.idOf("bean0")));
+        assertFalse(frozen.contains("other"));
+        assertTrue(frozen.contains("bean1"));
+        assertEquals(children, frozen.getAllByType(Child.class).size());
+    }
+}
@@ -0,0 +1,98 @@
+package org.aron.context.core;
+
+import org.aron.context.core.impl.AnnotationApplicationContext;
+import org.aron.context.error.BeanInstantiationException;
+import org.aron.fixture.async.broken.BrokenApp;
+import org.aron.fixture.async.broken.BrokenComponent;
+import org.aron.fixture.async.ok.AsyncApp;
+import org.aron.fixture.async.ok.AsyncConfig;
+import org.aron.fixture.async.ok.AsyncDao;
+import org.aron.fixture.async.ok.AsyncService;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * 异步初始化: 完成时容器已实例化并注入完毕, 扫包或实例化失败时异常完成
+ */
+public class InitAsyncTest {
+
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() {
+        this.executor = Executors.newFixedThreadPool(2);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        this.executor.shutdownNow();
+        IocManager iocManager = IocManager.getInstance(Collections.emptySet());
+        List<Object> beans = new ArrayList<>();
+        for (Object bean : iocManager.getIoc().values()) {
+            if (IocManager.typeOf(bean).getName().startsWith("org.aron.fixture.async.")) {
+                beans.add(bean);
+            }
+        }
+        iocManager.removeBeans(beans);
+    }
+
+    @Test
+    public void completesWithInjectedContext() throws Exception {
+        AnnotationApplicationContext context = new AnnotationApplicationContext(AsyncApp.class);
+        context.isloadConfiguration(true);
+        context.setExecutor(this.executor);
+        context.setParallelism(2);
+        assertSame(context, context.initAsync().get(10, TimeUnit.SECONDS));
+        AsyncDao dao = context.getBean(AsyncDao.class);
+        AsyncService service = context.getBean(AsyncService.class);
+        assertNotNull(dao);
+        assertSame(dao, service.getDao());
+        assertTrue(service.isInitialized());
+        AsyncConfig.AsyncClient client = context.getBean(AsyncConfig.AsyncClient.class);
+        assertNotNull(client);
+        assertSame(dao, client.dao);
+    }
+
+    @Test
+    public void failsWhenScanFails() throws Exception {
+        AnnotationApplicationContext context = new AnnotationApplicationContext(AsyncApp.class);
+        context.setScanPackages(new String[]{"missing"});
+        Throwable cause = failure(context);
+        assertTrue(String.valueOf(cause), cause instanceof ClassNotFoundException);
+    }
+
+    @Test
+    public void failsWhenInstantiationFails() throws Exception {
+        AnnotationApplicationContext context = new AnnotationApplicationContext(BrokenApp.class);
+        Throwable cause = failure(context);
+        assertTrue(String.valueOf(cause), cause instanceof BeanInstantiationException);
+        assertTrue(cause.getMessage(), cause.getMessage().contains(BrokenComponent.class.getName()));
+        assertNull(context.getIocManager().getBean(BrokenComponent.class));
+    }
+
+    private Throwable failure(AnnotationApplicationContext context) throws Exception {
+        context.setExecutor(this.executor);
+        try {
+            context.initAsync().get(10, TimeUnit.SECONDS);
+            fail("initAsync completed normally");
+            return null;
+        } catch (ExecutionException e) {
+            return e.getCause();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package org.aron.context.core;
+
+import org.aron.fixture.lazy.LazyA;
+import org.aron.fixture.lazy.LazyB;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * 延迟加载的bean 在第一次获取时只创建一次 互相依赖时并发获取不会死锁
+ */
+public class LazyBeanTest {
+
+    private static final int THREADS = 8;
+
+    private IocManager iocManager;
+
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() throws Exception {
+        LazyA.CREATED.set(0);
+        LazyB.CREATED.set(0);
+        this.iocManager = IocManager.getInstance(Collections.emptySet());
+        this.iocManager.doInstance(LazyA.class, LazyB.class);
+        this.executor = Executors.newFixedThreadPool(THREADS);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        this.executor.shutdownNow();
+        this.iocManager.removeBeans(this.iocManager.getBeansOfType(LazyA.class));
+        this.iocManager.removeBeans(this.iocManager.getBeansOfType(LazyB.class));
+    }
+
+    @Test
+    public void createdOnFirstUse() throws Exception {
+        assertEquals(0, LazyA.CREATED.get());
+        LazyA a = this.iocManager.getBean(LazyA.class);
+        assertEquals(1, LazyA.CREATED.get());
+        assertEquals(1, LazyB.CREATED.get());
+        assertSame(a, this.iocManager.getBean(LazyA.class));
+        assertSame(a, a.getB().getA());
+    }
+
+    @Test
+    public void concurrentFirstUseCreatesOnce() throws Exception {
+        CyclicBarrier barrier = new CyclicBarrier(THREADS);
+        List<Future<LazyA>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            futures.add(this.executor.submit(() -> {
+                barrier.await();
+                return this.iocManager.getBean(LazyA.class);
+            }));
+        }
+        LazyA a = futures.get(0).get(10, TimeUnit.SECONDS);
+        for (Future<LazyA> future : futures) {
+            assertSame(a, future.get(10, TimeUnit.SECONDS));
+        }
+        assertEquals(1, LazyA.CREATED.get());
+    }
+
+    @Test
+    public void mutualDependenciesDoNotDeadlock() throws Exception {
+        CyclicBarrier barrier = new CyclicBarrier(2);
+        Future<LazyA> a = this.executor.submit(() -> {
+            barrier.await();
+            return this.iocManager.getBean(LazyA.class);
+        });
+        Future<LazyB> b = this.executor.submit(() -> {
+            barrier.await();
+            return this.iocManager.getBean(LazyB.class);
+        });
+        // 各自持有锁时互相等待 会在这里超时
+        assertSame(b.get(10, TimeUnit.SECONDS), a.get(10, TimeUnit.SECONDS).getB());
+        assertSame(a.get(), b.get().getA());
+        assertEquals(1, LazyA.CREATED.get());
+        assertEquals(1, LazyB.CREATED.get());
+    }
+}
@@ -0,0 +1,78 @@
+package org.aron.context.core;
+
+import org.aron.context.core.impl.AnnotationApplicationContext;
+import org.aron.fixture.lifecycle.Downstream;
+import org.aron.fixture.lifecycle.Lifecycle;
+import org.aron.fixture.lifecycle.Upstream;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @PostConstruct、@WarmUp、@PreDestroy 按依赖关系的调用顺序
+ */
+public class LifecycleTest {
+
+    private AnnotationApplicationContext context;
+
+    @Before
+    public void setUp() {
+        Lifecycle.EVENTS.clear();
+        Lifecycle.gate = new CountDownLatch(1);
+        this.context = new AnnotationApplicationContext(Lifecycle.class);
+        this.context.setParallelism(4);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        // 等待后台的@WarmUp结束 以免影响下一个测试的记录
+        Lifecycle.gate.countDown();
+        this.context.ready().handle((v, e) -> null).get(5, TimeUnit.SECONDS);
+        this.context.removeBeans(this.context.getAllBean());
+    }
+
+    @Test
+    public void postConstructRunsAfterDependencies() throws Exception {
+        this.context.init();
+        List<String> events = Lifecycle.EVENTS;
+        assertTrue(events.toString(), events.contains("init:Downstream"));
+        assertBefore("baseInit:Upstream", "init:Upstream");
+        assertBefore("init:Upstream", "init:Downstream");
+    }
+
+    @Test
+    public void warmUpRunsInBackground() throws Exception {
+        this.context.init();
+        // init()返回时 被阻塞的@WarmUp仍未完成
+        assertFalse(this.context.ready().isDone());
+        assertFalse(Lifecycle.EVENTS.contains("warmUp:Downstream"));
+        Lifecycle.gate.countDown();
+        this.context.ready().get(5, TimeUnit.SECONDS);
+        assertBefore("warmUp:Upstream", "warmUp:Downstream");
+    }
+
+    @Test
+    public void preDestroyRunsInReverseOrder() throws Exception {
+        Lifecycle.gate.countDown();
+        this.context.init();
+        this.context.ready().get(5, TimeUnit.SECONDS);
+        this.context.destroy();
+        assertBefore("destroy:Downstream", "destroy:Upstream");
+        assertNull(this.context.getBean(Upstream.class));
+        assertNull(this.context.getBean(Downstream.class));
+    }
+
+    private static void assertBefore(String first, String second) {
+        List<String> events = Lifecycle.EVENTS;
+        int index = events.indexOf(first);
+        assertTrue(events.toString(), index >= 0 && index < events.indexOf(second));
+    }
+}
@@ -0,0 +1,94 @@
+package org.aron.context.core;
+
+import org.aron.fixture.prototype.Counter;
+import org.aron.fixture.prototype.Pooled;
+import org.aron.fixture.prototype.Proto;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * prototype bean每次获取时创建新实例 设置了对象池时归还的实例经@Reset重置后复用
+ */
+public class PrototypeBeanTest {
+
+    private IocManager iocManager;
+
+    @Before
+    public void setUp() throws Exception {
+        Pooled.CREATED.set(0);
+        this.iocManager = IocManager.getInstance(Collections.emptySet());
+        this.iocManager.doInstance(Counter.class, Proto.class, Pooled.class);
+    }
+
+    @After
+    public void tearDown() {
+        // getAllBean会为prototype bean创建新实例 直接移除容器中的占位对象
+        List<Object> beans = new ArrayList<>();
+        for (Object bean : this.iocManager.getIoc().values()) {
+            if (IocManager.typeOf(bean).getPackage() == Counter.class.getPackage()) {
+                beans.add(bean);
+            }
+        }
+        this.iocManager.removeBeans(beans);
+    }
+
+    @Test
+    public void newInstancePerGetBean() throws Exception {
+        Proto a = this.iocManager.getBean(Proto.class);
+        Proto b = this.iocManager.getBean(Proto.class);
+        assertNotSame(a, b);
+        assertNotNull(a.getCounter());
+        assertSame(this.iocManager.getBean(Counter.class), a.getCounter());
+        assertSame(a.getCounter(), b.getCounter());
+    }
+
+    @Test
+    public void releasedInstanceIsResetAndReused() throws Exception {
+        Pooled pooled = this.iocManager.getBean(Pooled.class);
+        pooled.used = 5;
+        assertTrue(this.iocManager.releaseBean(pooled));
+        assertEquals(0, pooled.used);
+        assertSame(pooled, this.iocManager.getBean(Pooled.class));
+        // 对象池为空时创建新实例
+        assertNotSame(pooled, this.iocManager.getBean(Pooled.class));
+        assertEquals(2, Pooled.CREATED.get());
+    }
+
+    @Test
+    public void releaseIgnoresNonPooledAndForeignObjects() throws Exception {
+        assertFalse(this.iocManager.releaseBean(null));
+        assertFalse(this.iocManager.releaseBean(this.iocManager.getBean(Counter.class)));
+        assertFalse(this.iocManager.releaseBean(this.iocManager.getBean(Proto.class)));
+        assertFalse(this.iocManager.releaseBean(new Object()));
+        assertFalse(this.iocManager.releaseBean("foreign"));
+        // 对象池未被放入其他对象
+        assertNotNull(this.iocManager.getBean(Pooled.class));
+        assertEquals(1, Pooled.CREATED.get());
+    }
+
+    @Test
+    public void poolSizeIsBounded() throws Exception {
+        Pooled first = this.iocManager.getBean(Pooled.class);
+        Pooled second = this.iocManager.getBean(Pooled.class);
+        assertTrue(this.iocManager.releaseBean(first));
+        // 对象池已满 丢弃归还的实例
+        assertFalse(this.iocManager.releaseBean(second));
+        assertSame(first, this.iocManager.getBean(Pooled.class));
+        Pooled third = this.iocManager.getBean(Pooled.class);
+        assertNotSame(first, third);
+        assertNotSame(second, third);
+        assertEquals(3, Pooled.CREATED.get());
+    }
+}
@@ -0,0 +1,150 @@
+package org.aron.context.core;
+
+import org.aron.context.error.BeanInstantiationException;
+import org.aron.fixture.scope.RequestContext;
+import org.aron.fixture.scope.RequestContextImpl;
+import org.aron.fixture.scope.RequestHandler;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * request作用域的bean 每个BeanScope内一个实例, 注入到单例中的代理按当前作用域获取实例
+ */
+public class ScopedBeanTest {
+
+    private IocManager iocManager;
+
+    @Before
+    public void setUp() throws Exception {
+        RequestContextImpl.DESTROYED.set(0);
+        this.iocManager = IocManager.getInstance(Collections.emptySet());
+        this.iocManager.doInstance(RequestContextImpl.class, RequestHandler.class);
+    }
+
+    @After
+    public void tearDown() {
+        // 作用域外getAllBean不包含request作用域的bean 直接移除容器中的占位对象
+        List<Object> beans = new ArrayList<>();
+        for (Object bean : this.iocManager.getIoc().values()) {
+            if (IocManager.typeOf(bean).getPackage() == RequestHandler.class.getPackage()) {
+                beans.add(bean);
+            }
+        }
+        this.iocManager.removeBeans(beans);
+    }
+
+    @Test
+    public void scopesOnDifferentThreadsAreIsolated() throws Exception {
+        RequestHandler handler = this.iocManager.getBean(RequestHandler.class);
+        CyclicBarrier barrier = new CyclicBarrier(2);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<RequestContext>> futures = new ArrayList<>();
+            for (int i = 1; i <= 2; i++) {
+                int id = i;
+                futures.add(executor.submit(() -> {
+                    try (BeanScope ignored = BeanScope.open()) {
+                        handler.getContext().setId(id);
+                        // 两个作用域同时存在时 各自读取自己的实例
+                        barrier.await(5, TimeUnit.SECONDS);
+                        assertEquals(id, handler.getContext().getId());
+                        return this.iocManager.getBean(RequestContext.class);
+                    }
+                }));
+            }
+            RequestContext first = futures.get(0).get(10, TimeUnit.SECONDS);
+            RequestContext second = futures.get(1).get(10, TimeUnit.SECONDS);
+            assertNotSame(first, second);
+            assertEquals(1, first.getId());
+            assertEquals(2, second.getId());
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(2, RequestContextImpl.DESTROYED.get());
+    }
+
+    @Test
+    public void closedScopeReleasesInstances() throws Exception {
+        RequestContext first;
+        try (BeanScope ignored = BeanScope.open()) {
+            first = this.iocManager.getBean(RequestContext.class);
+            assertSame(first, this.iocManager.getBean(RequestContext.class));
+        }
+        assertNull(BeanScope.current());
+        assertEquals(1, RequestContextImpl.DESTROYED.get());
+        try (BeanScope ignored = BeanScope.open()) {
+            assertNotSame(first, this.iocManager.getBean(RequestContext.class));
+        }
+    }
+
+    @Test
+    public void slotIsReusedAfterBeanIsReplaced() throws Exception {
+        ScopedBean bean = (ScopedBean) this.iocManager.lookup(RequestContextImpl.class);
+        try (BeanScope ignored = BeanScope.open()) {
+            Object before = this.iocManager.getBean(RequestContextImpl.class);
+            this.iocManager.removeBean(bean);
+            this.iocManager.doInstance(RequestContextImpl.class);
+            ScopedBean replaced = (ScopedBean) this.iocManager.lookup(RequestContextImpl.class);
+            assertNotSame(bean, replaced);
+            // 移除的bean归还下标 新的bean复用该下标
+            assertEquals(bean.getIndex(), replaced.getIndex());
+            // 同一下标上原来的bean创建的实例不再返回
+            Object after = this.iocManager.getBean(RequestContextImpl.class);
+            assertNotSame(before, after);
+            assertSame(after, this.iocManager.getBean(RequestContextImpl.class));
+        }
+    }
+
+    @Test
+    public void proxyInSingletonResolvesCurrentScope() throws Exception {
+        RequestHandler handler = this.iocManager.getBean(RequestHandler.class);
+        assertFalse(handler.getContext() instanceof RequestContextImpl);
+        try (BeanScope outer = BeanScope.open()) {
+            handler.getContext().setId(1);
+            try (BeanScope inner = BeanScope.open()) {
+                assertEquals(0, handler.getContext().getId());
+                handler.getContext().setId(2);
+                assertEquals(2, this.iocManager.getBean(RequestContext.class).getId());
+            }
+            assertEquals(1, handler.getContext().getId());
+            assertEquals(1, this.iocManager.getBean(RequestContext.class).getId());
+        }
+    }
+
+    @Test
+    public void accessOutsideScopeFails() throws Exception {
+        assertNull(BeanScope.current());
+        try {
+            this.iocManager.getBean(RequestContextImpl.class);
+            fail("request-scoped bean is accessed outside of a BeanScope");
+        } catch (BeanInstantiationException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains(RequestContextImpl.class.getName()));
+        }
+        RequestHandler handler = this.iocManager.getBean(RequestHandler.class);
+        try {
+            handler.getContext().getId();
+            fail("request-scoped bean is accessed outside of a BeanScope");
+        } catch (UndeclaredThrowableException e) {
+            assertTrue(e.getCause() instanceof BeanInstantiationException);
+        }
+    }
+}
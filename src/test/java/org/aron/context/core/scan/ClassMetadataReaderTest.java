@@ -0,0 +1,99 @@
+package org.aron.context.core.scan;
+
+import org.aron.context.annotation.component.Service;
+import org.aron.context.config.TestConfig;
+import org.aron.context.controller.TestController;
+import org.aron.context.core.IocManager;
+import org.aron.context.service.TestService;
+import org.junit.Test;
+
+import java.lang.annotation.Annotation;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.reflect.Modifier;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * 从class文件读取的类名、访问标记与注解 与反射的结果一致
+ */
+public class ClassMetadataReaderTest {
+
+    @Retention(RetentionPolicy.RUNTIME)
+    @interface Values {
+        int[] numbers() default {};
+
+        String text() default "";
+
+        ElementType type() default ElementType.TYPE;
+
+        Deprecated nested() default @Deprecated;
+
+        Class<?> clazz() default Object.class;
+    }
+
+    @Retention(RetentionPolicy.CLASS)
+    @interface Invisible {}
+
+    @Invisible
+    @Values(numbers = {1, 2}, text = "中文", type = ElementType.FIELD, clazz = String.class)
+    @Service("sample")
+    public abstract static class Sample {
+        static final long LONG = 1L;
+        static final double DOUBLE = 2.0;
+        private final Runnable runnable = () -> {};
+    }
+
+    @Deprecated
+    interface Marker {}
+
+    @Test
+    public void matchesReflection() throws Exception {
+        ClassMetadataReader reader = new ClassMetadataReader();
+        for (Class<?> clazz : Arrays.asList(Sample.class, Marker.class, Values.class, Invisible.class,
+                TestService.class, TestController.class, TestConfig.class, IocManager.class, ClassMetadataReader.class)) {
+            ClassMetadata metadata = reader.read(classFile(clazz));
+            assertEquals(clazz.getName(), metadata.getClassName());
+            assertEquals(clazz.getName(), annotationsOf(clazz), metadata.getAnnotations());
+            assertEquals(clazz.getName(), clazz.isInterface(), metadata.isInterface());
+            assertEquals(clazz.getName(), Modifier.isAbstract(clazz.getModifiers()), metadata.isAbstract());
+        }
+    }
+
+    @Test
+    public void rejectsNonClassFiles() throws Exception {
+        Path file = Files.createTempFile("metadata", ".class");
+        try {
+            Files.write(file, "not a class file".getBytes());
+            assertNull(new ClassMetadataReader().read(file));
+            Files.write(file, new byte[]{(byte) 0xCA, (byte) 0xFE, (byte) 0xBA, (byte) 0xBE, 0, 0});
+            assertNull(new ClassMetadataReader().read(file));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static Path classFile(Class<?> clazz) throws Exception {
+        String name = clazz.getName();
+        return Paths.get(clazz.getResource(name.substring(name.lastIndexOf('.') + 1) + ".class").toURI());
+    }
+
+    /**
+     * class文件中只有类上直接声明的注解 不包括继承的注解
+     */
+    private static Set<String> annotationsOf(Class<?> clazz) {
+        return Arrays.stream(clazz.getDeclaredAnnotations())
+                .map(Annotation::annotationType)
+                .map(Class::getName)
+                .collect(Collectors.toCollection(HashSet::new));
+    }
+}
@@ -0,0 +1,73 @@
+package org.aron.context.core.startup;
+
+import org.aron.context.core.impl.AnnotationApplicationContext;
+import org.aron.fixture.startup.Probe;
+import org.aron.fixture.startup.StartupApp;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 每次初始化重新开始记录 报告中的阶段不随初始化次数重复
+ */
+public class StartupRecorderTest {
+
+    private static final List<String> PHASES = Arrays.asList("scan", "loadClasses", "instantiate", "inject", "postConstruct");
+
+    private static final Pattern NAME = Pattern.compile("\"name\":\"([^\"]+)\"");
+
+    private static final Pattern ELAPSED = Pattern.compile("\"elapsedMillis\":([0-9.]+)");
+
+    private AnnotationApplicationContext context;
+
+    @After
+    public void tearDown() throws Exception {
+        if (this.context != null) {
+            this.context.removeBeans(this.context.getBeansOfType(Probe.class));
+        }
+    }
+
+    @Test
+    public void reinitRecordsPhasesOnce() throws Exception {
+        this.context = new AnnotationApplicationContext(StartupApp.class);
+        this.context.setStartupRecording(true);
+        this.context.init();
+        assertEquals(PHASES, phases(this.context.getStartupRecorder().toJson()));
+
+        this.context.init();
+        assertEquals(PHASES, phases(this.context.getStartupRecorder().toJson()));
+    }
+
+    @Test
+    public void resetRestartsClockAndPhases() throws Exception {
+        StartupRecorder recorder = StartupRecorder.create();
+        recorder.phase("before").close();
+        Thread.sleep(200);
+        recorder.reset();
+        recorder.phase("after").close();
+        String json = recorder.toJson();
+        List<String> phases = phases(json);
+        assertEquals(1, phases.size());
+        assertEquals("after", phases.get(0));
+        Matcher elapsed = ELAPSED.matcher(json);
+        assertTrue(json, elapsed.find());
+        assertTrue(json, Double.parseDouble(elapsed.group(1)) < 200);
+    }
+
+    private static List<String> phases(String json) {
+        List<String> names = new ArrayList<>();
+        Matcher matcher = NAME.matcher(json);
+        while (matcher.find()) {
+            names.add(matcher.group(1));
+        }
+        return names;
+    }
+}
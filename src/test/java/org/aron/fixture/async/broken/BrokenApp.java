@@ -0,0 +1,4 @@
+package org.aron.fixture.async.broken;
+
+public class BrokenApp {
+}
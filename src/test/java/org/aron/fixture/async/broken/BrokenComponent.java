@@ -0,0 +1,14 @@
+package org.aron.fixture.async.broken;
+
+import org.aron.context.annotation.component.Component;
+
+/**
+ * 实例化时抛出异常的组件
+ */
+@Component
+public class BrokenComponent {
+
+    public BrokenComponent() {
+        throw new IllegalStateException("broken component");
+    }
+}
@@ -0,0 +1,4 @@
+package org.aron.fixture.async.ok;
+
+public class AsyncApp {
+}
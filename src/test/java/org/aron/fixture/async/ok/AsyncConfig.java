@@ -0,0 +1,21 @@
+package org.aron.fixture.async.ok;
+
+import org.aron.context.annotation.Configuration;
+import org.aron.context.annotation.component.Bean;
+
+@Configuration
+public class AsyncConfig {
+
+    public static class AsyncClient {
+        public final AsyncDao dao;
+
+        AsyncClient(AsyncDao dao) {
+            this.dao = dao;
+        }
+    }
+
+    @Bean
+    public AsyncClient client(AsyncDao dao) {
+        return new AsyncClient(dao);
+    }
+}
@@ -0,0 +1,7 @@
+package org.aron.fixture.async.ok;
+
+import org.aron.context.annotation.component.Resource;
+
+@Resource
+public class AsyncDao {
+}
@@ -0,0 +1,27 @@
+package org.aron.fixture.async.ok;
+
+import org.aron.context.annotation.component.Autowired;
+import org.aron.context.annotation.component.Service;
+import org.aron.context.annotation.lifecycle.PostConstruct;
+
+@Service
+public class AsyncService {
+
+    @Autowired
+    private AsyncDao dao;
+
+    private boolean initialized;
+
+    @PostConstruct
+    public void init() {
+        this.initialized = dao != null;
+    }
+
+    public AsyncDao getDao() {
+        return dao;
+    }
+
+    public boolean isInitialized() {
+        return initialized;
+    }
+}
@@ -0,0 +1,13 @@
+package org.aron.fixture.cycle.prototype;
+
+import org.aron.context.annotation.component.Autowired;
+import org.aron.context.annotation.component.Component;
+import org.aron.context.annotation.component.Scope;
+
+@Component
+@Scope(Scope.PROTOTYPE)
+public class PrototypeA {
+
+    @Autowired
+    private PrototypeB b;
+}
@@ -0,0 +1,16 @@
+package org.aron.fixture.cycle.self;
+
+import org.aron.context.annotation.component.Autowired;
+import org.aron.context.annotation.component.Component;
+import org.aron.context.annotation.component.Scope;
+
+/**
+ * 依赖自身的prototype bean 每次创建都需要一个新的自身实例
+ */
+@Component
+@Scope(Scope.PROTOTYPE)
+public class SelfReference {
+
+    @Autowired
+    private SelfReference next;
+}
@@ -0,0 +1,22 @@
+package org.aron.fixture.cycle.singleton;
+
+import org.aron.context.annotation.component.Autowired;
+import org.aron.context.annotation.component.Component;
+
+@Component
+public class SingletonA {
+
+    @Autowired
+    private SingletonB b;
+
+    @Autowired
+    private SingletonA self;
+
+    public SingletonB getB() {
+        return b;
+    }
+
+    public SingletonA getSelf() {
+        return self;
+    }
+}
@@ -0,0 +1,15 @@
+package org.aron.fixture.cycle.singleton;
+
+import org.aron.context.annotation.component.Autowired;
+import org.aron.context.annotation.component.Component;
+
+@Component
+public class SingletonB {
+
+    @Autowired
+    private SingletonA a;
+
+    public SingletonA getA() {
+        return a;
+    }
+}
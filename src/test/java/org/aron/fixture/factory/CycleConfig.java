@@ -0,0 +1,27 @@
+package org.aron.fixture.factory;
+
+import org.aron.context.annotation.Configuration;
+import org.aron.context.annotation.component.Bean;
+
+/**
+ * 参数互相依赖的@Bean方法
+ */
+@Configuration
+public class CycleConfig {
+
+    public static class CycleA {
+    }
+
+    public static class CycleB {
+    }
+
+    @Bean
+    public CycleA first(CycleB b) {
+        return new CycleA();
+    }
+
+    @Bean
+    public CycleB second(CycleA a) {
+        return new CycleB();
+    }
+}
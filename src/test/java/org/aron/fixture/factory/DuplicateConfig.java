@@ -0,0 +1,33 @@
+package org.aron.fixture.factory;
+
+import org.aron.context.annotation.Configuration;
+import org.aron.context.annotation.component.Bean;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 两个@Bean方法使用相同的beanName
+ */
+@Configuration
+public class DuplicateConfig {
+
+    public static final AtomicInteger CALLS = new AtomicInteger();
+
+    public static class Left {
+    }
+
+    public static class Right {
+    }
+
+    @Bean("duplicate")
+    public Left left() {
+        CALLS.incrementAndGet();
+        return new Left();
+    }
+
+    @Bean("duplicate")
+    public Right right() {
+        CALLS.incrementAndGet();
+        return new Right();
+    }
+}
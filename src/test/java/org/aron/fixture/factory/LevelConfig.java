@@ -0,0 +1,56 @@
+package org.aron.fixture.factory;
+
+import org.aron.context.annotation.Configuration;
+import org.aron.context.annotation.component.Bean;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 三层依赖的@Bean方法 按声明的逆序定义
+ */
+@Configuration
+public class LevelConfig {
+
+    public static final List<String> ORDER = Collections.synchronizedList(new ArrayList<>());
+
+    public static class LevelLeaf {
+    }
+
+    public static class LevelMiddle {
+        public final LevelLeaf leaf;
+
+        LevelMiddle(LevelLeaf leaf) {
+            this.leaf = leaf;
+        }
+    }
+
+    public static class LevelTop {
+        public final LevelMiddle middle;
+        public final LevelLeaf leaf;
+
+        LevelTop(LevelMiddle middle, LevelLeaf leaf) {
+            this.middle = middle;
+            this.leaf = leaf;
+        }
+    }
+
+    @Bean
+    public LevelTop top(LevelMiddle middle, LevelLeaf leaf) {
+        ORDER.add("top");
+        return new LevelTop(middle, leaf);
+    }
+
+    @Bean
+    public LevelMiddle middle(LevelLeaf leaf) {
+        ORDER.add("middle");
+        return new LevelMiddle(leaf);
+    }
+
+    @Bean
+    public LevelLeaf leaf() {
+        ORDER.add("leaf");
+        return new LevelLeaf();
+    }
+}
@@ -0,0 +1,39 @@
+package org.aron.fixture.factory;
+
+import org.aron.context.annotation.Configuration;
+import org.aron.context.annotation.component.Bean;
+import org.aron.context.annotation.component.Scope;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * prototype作用域的@Bean方法 每次获取时重新调用
+ */
+@Configuration
+public class PrototypeConfig {
+
+    public static final AtomicInteger CREATED = new AtomicInteger();
+
+    public static class Clock {
+    }
+
+    public static class Session {
+        public final Clock clock;
+
+        Session(Clock clock) {
+            this.clock = clock;
+        }
+    }
+
+    @Bean
+    public Clock clock() {
+        return new Clock();
+    }
+
+    @Bean
+    @Scope(Scope.PROTOTYPE)
+    public Session session(Clock clock) {
+        CREATED.incrementAndGet();
+        return new Session(clock);
+    }
+}
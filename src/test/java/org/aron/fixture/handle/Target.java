@@ -0,0 +1,10 @@
+package org.aron.fixture.handle;
+
+import org.aron.context.annotation.component.Component;
+
+/**
+ * 通过句柄读取 测试中被移除后重新注册
+ */
+@Component("handleTarget")
+public class Target {
+}
@@ -0,0 +1,29 @@
+package org.aron.fixture.lazy;
+
+import org.aron.context.annotation.component.Autowired;
+import org.aron.context.annotation.component.Component;
+import org.aron.context.annotation.component.Lazy;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 与LazyB互相依赖的延迟加载bean 构造方法较慢 便于两个线程同时初始化
+ */
+@Lazy
+@Component
+public class LazyA {
+
+    public static final AtomicInteger CREATED = new AtomicInteger();
+
+    @Autowired
+    private LazyB b;
+
+    public LazyA() throws InterruptedException {
+        Thread.sleep(100);
+        CREATED.incrementAndGet();
+    }
+
+    public LazyB getB() {
+        return b;
+    }
+}
@@ -0,0 +1,26 @@
+package org.aron.fixture.lazy;
+
+import org.aron.context.annotation.component.Autowired;
+import org.aron.context.annotation.component.Component;
+import org.aron.context.annotation.component.Lazy;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Lazy
+@Component
+public class LazyB {
+
+    public static final AtomicInteger CREATED = new AtomicInteger();
+
+    @Autowired
+    private LazyA a;
+
+    public LazyB() throws InterruptedException {
+        Thread.sleep(100);
+        CREATED.incrementAndGet();
+    }
+
+    public LazyA getA() {
+        return a;
+    }
+}
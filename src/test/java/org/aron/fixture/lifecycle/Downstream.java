@@ -0,0 +1,30 @@
+package org.aron.fixture.lifecycle;
+
+import org.aron.context.annotation.component.Autowired;
+import org.aron.context.annotation.component.Component;
+import org.aron.context.annotation.lifecycle.PostConstruct;
+import org.aron.context.annotation.lifecycle.PreDestroy;
+import org.aron.context.annotation.lifecycle.WarmUp;
+
+@Component
+public class Downstream {
+
+    @Autowired
+    private Upstream upstream;
+
+    @PostConstruct
+    void init() {
+        // 依赖在@PostConstruct之前注入
+        Lifecycle.EVENTS.add(upstream == null ? "init:Downstream without Upstream" : "init:Downstream");
+    }
+
+    @WarmUp
+    void warmUp() {
+        Lifecycle.EVENTS.add("warmUp:Downstream");
+    }
+
+    @PreDestroy
+    void destroy() {
+        Lifecycle.EVENTS.add("destroy:Downstream");
+    }
+}
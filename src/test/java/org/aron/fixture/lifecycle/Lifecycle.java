@@ -0,0 +1,32 @@
+package org.aron.fixture.lifecycle;
+
+import org.aron.context.annotation.lifecycle.PostConstruct;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * 生命周期测试的启动类 记录回调的调用顺序
+ * 不在org.aron.context下 以免被其他测试的扫包加载
+ */
+public class Lifecycle {
+
+    public static final List<String> EVENTS = Collections.synchronizedList(new ArrayList<>());
+
+    /**
+     * 放行@WarmUp方法 用于验证init()不等待预热
+     */
+    public static volatile CountDownLatch gate = new CountDownLatch(0);
+
+    /**
+     * 父类的@PostConstruct先于子类调用
+     */
+    public static class Base {
+        @PostConstruct
+        void baseInit() {
+            EVENTS.add("baseInit:" + getClass().getSimpleName());
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package org.aron.fixture.lifecycle;
+
+import org.aron.context.annotation.component.Component;
+import org.aron.context.annotation.lifecycle.PostConstruct;
+import org.aron.context.annotation.lifecycle.PreDestroy;
+import org.aron.context.annotation.lifecycle.WarmUp;
+
+@Component
+public class Upstream extends Lifecycle.Base {
+
+    @PostConstruct
+    void init() {
+        Lifecycle.EVENTS.add("init:Upstream");
+    }
+
+    @WarmUp
+    void warmUp() throws InterruptedException {
+        Lifecycle.gate.await();
+        Lifecycle.EVENTS.add("warmUp:Upstream");
+    }
+
+    @PreDestroy
+    void destroy() {
+        Lifecycle.EVENTS.add("destroy:Upstream");
+    }
+}
@@ -0,0 +1,10 @@
+package org.aron.fixture.prototype;
+
+import org.aron.context.annotation.component.Component;
+
+/**
+ * 被prototype bean依赖的单例bean
+ */
+@Component
+public class Counter {
+}
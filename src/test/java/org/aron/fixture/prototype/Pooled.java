@@ -0,0 +1,28 @@
+package org.aron.fixture.prototype;
+
+import org.aron.context.annotation.component.Component;
+import org.aron.context.annotation.component.Scope;
+import org.aron.context.annotation.lifecycle.Reset;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 对象池大小为1的prototype bean 只有一个段, 对象池的容量与线程无关
+ */
+@Scope(value = Scope.PROTOTYPE, poolSize = 1)
+@Component
+public class Pooled {
+
+    public static final AtomicInteger CREATED = new AtomicInteger();
+
+    public int used;
+
+    public Pooled() {
+        CREATED.incrementAndGet();
+    }
+
+    @Reset
+    void reset() {
+        this.used = 0;
+    }
+}
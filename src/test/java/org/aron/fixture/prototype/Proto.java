@@ -0,0 +1,20 @@
+package org.aron.fixture.prototype;
+
+import org.aron.context.annotation.component.Autowired;
+import org.aron.context.annotation.component.Component;
+import org.aron.context.annotation.component.Scope;
+
+/**
+ * 未设置对象池的prototype bean
+ */
+@Scope(Scope.PROTOTYPE)
+@Component
+public class Proto {
+
+    @Autowired
+    private Counter counter;
+
+    public Counter getCounter() {
+        return counter;
+    }
+}
@@ -0,0 +1,8 @@
+package org.aron.fixture.reload;
+
+/**
+ * 热替换测试的启动类 只扫描并监听所在的包
+ * 不在org.aron.context下 以免被其他测试的扫包加载
+ */
+public class ReloadApp {
+}
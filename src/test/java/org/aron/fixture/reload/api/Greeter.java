@@ -0,0 +1,6 @@
+package org.aron.fixture.reload.api;
+
+public interface Greeter {
+
+    String greet();
+}
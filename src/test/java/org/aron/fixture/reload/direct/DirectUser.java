@@ -0,0 +1,19 @@
+package org.aron.fixture.reload.direct;
+
+import org.aron.context.annotation.component.Autowired;
+import org.aron.context.annotation.component.Component;
+import org.aron.fixture.reload.impl.GreeterImpl;
+
+/**
+ * 字段类型是被替换的类本身 所在的包一并重新加载
+ */
+@Component
+public class DirectUser {
+
+    @Autowired
+    private GreeterImpl greeter;
+
+    public Object getGreeter() {
+        return greeter;
+    }
+}
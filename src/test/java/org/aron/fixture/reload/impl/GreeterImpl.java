@@ -0,0 +1,24 @@
+package org.aron.fixture.reload.impl;
+
+import org.aron.context.annotation.component.Component;
+import org.aron.context.annotation.lifecycle.PreDestroy;
+import org.aron.fixture.reload.api.Greeter;
+
+/**
+ * 测试中重新编译为 greet() 返回 v2 的版本
+ */
+@Component
+public class GreeterImpl implements Greeter {
+
+    public static volatile int destroyed;
+
+    @Override
+    public String greet() {
+        return Prefix.value() + "1";
+    }
+
+    @PreDestroy
+    void destroy() {
+        destroyed++;
+    }
+}
@@ -0,0 +1,11 @@
+package org.aron.fixture.reload.impl;
+
+/**
+ * 包级私有 新版本的GreeterImpl访问它时需要在同一个运行时包中
+ */
+class Prefix {
+
+    static String value() {
+        return "v";
+    }
+}
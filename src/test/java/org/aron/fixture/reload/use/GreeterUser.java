@@ -0,0 +1,16 @@
+package org.aron.fixture.reload.use;
+
+import org.aron.context.annotation.component.Autowired;
+import org.aron.context.annotation.component.Component;
+import org.aron.fixture.reload.api.Greeter;
+
+@Component
+public class GreeterUser {
+
+    @Autowired
+    private Greeter greeter;
+
+    public Greeter getGreeter() {
+        return greeter;
+    }
+}
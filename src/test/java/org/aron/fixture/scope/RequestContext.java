@@ -0,0 +1,11 @@
+package org.aron.fixture.scope;
+
+/**
+ * request作用域的bean只能以接口类型注入
+ */
+public interface RequestContext {
+
+    int getId();
+
+    void setId(int id);
+}
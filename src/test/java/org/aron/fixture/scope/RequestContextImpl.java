@@ -0,0 +1,31 @@
+package org.aron.fixture.scope;
+
+import org.aron.context.annotation.component.Component;
+import org.aron.context.annotation.component.Scope;
+import org.aron.context.annotation.lifecycle.PreDestroy;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Scope(Scope.REQUEST)
+@Component
+public class RequestContextImpl implements RequestContext {
+
+    public static final AtomicInteger DESTROYED = new AtomicInteger();
+
+    private int id;
+
+    @Override
+    public int getId() {
+        return id;
+    }
+
+    @Override
+    public void setId(int id) {
+        this.id = id;
+    }
+
+    @PreDestroy
+    public void destroy() {
+        DESTROYED.incrementAndGet();
+    }
+}
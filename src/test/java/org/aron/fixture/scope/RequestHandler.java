@@ -0,0 +1,18 @@
+package org.aron.fixture.scope;
+
+import org.aron.context.annotation.component.Autowired;
+import org.aron.context.annotation.component.Component;
+
+/**
+ * 依赖request作用域bean的单例bean 注入的是代理
+ */
+@Component
+public class RequestHandler {
+
+    @Autowired
+    private RequestContext context;
+
+    public RequestContext getContext() {
+        return context;
+    }
+}
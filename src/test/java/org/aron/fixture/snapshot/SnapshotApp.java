@@ -0,0 +1,8 @@
+package org.aron.fixture.snapshot;
+
+/**
+ * 快照测试的启动类 只扫描所在的包
+ * 不在org.aron.context下 以免被其他测试的扫包加载
+ */
+public class SnapshotApp {
+}
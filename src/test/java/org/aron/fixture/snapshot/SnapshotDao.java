@@ -0,0 +1,7 @@
+package org.aron.fixture.snapshot;
+
+import org.aron.context.annotation.component.Resource;
+
+@Resource
+public class SnapshotDao {
+}
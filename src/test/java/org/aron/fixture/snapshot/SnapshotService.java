@@ -0,0 +1,15 @@
+package org.aron.fixture.snapshot;
+
+import org.aron.context.annotation.component.Autowired;
+import org.aron.context.annotation.component.Service;
+
+@Service
+public class SnapshotService {
+
+    @Autowired
+    private SnapshotDao dao;
+
+    public SnapshotDao getDao() {
+        return dao;
+    }
+}
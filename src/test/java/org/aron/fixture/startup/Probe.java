@@ -0,0 +1,10 @@
+package org.aron.fixture.startup;
+
+import org.aron.context.annotation.component.Component;
+
+/**
+ * 重复初始化时记录启动阶段
+ */
+@Component
+public class Probe {
+}
@@ -0,0 +1,4 @@
+package org.aron.fixture.startup;
+
+public class StartupApp {
+}